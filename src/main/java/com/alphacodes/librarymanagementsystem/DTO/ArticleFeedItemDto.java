@@ -0,0 +1,33 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleFeedItemDto {
+    private int articleId;
+    private String title;
+    // Start of the body, the full text is at /article/view/{articleId}
+    private String excerpt;
+    private String authorId;
+    private String authorName;
+    private Date dateCreated;
+    // Null when the article has no image
+    private String imageUrl;
+    private long commentCount;
+
+    // Used by the feed query, which only checks whether an image exists and never reads its bytes
+    public ArticleFeedItemDto(Integer articleId, String title, String excerpt, String authorId,
+                              String authorFirstName, String authorLastName, Date dateCreated, Boolean hasImage,
+                              Long commentCount) {
+        this(articleId, title, excerpt, authorId,
+                (authorFirstName == null ? "" : authorFirstName) + (authorLastName == null ? "" : " " + authorLastName),
+                dateCreated, Boolean.TRUE.equals(hasImage) ? "/article/" + articleId + "/image?size=medium" : null,
+                commentCount == null ? 0 : commentCount);
+    }
+}
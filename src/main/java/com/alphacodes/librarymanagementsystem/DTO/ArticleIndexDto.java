@@ -0,0 +1,19 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// What the article search index needs of an article, read without the image
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleIndexDto {
+    private Integer articleId;
+    private String title;
+    private String body;
+    private String authorId;
+    private Date dateCreated;
+}
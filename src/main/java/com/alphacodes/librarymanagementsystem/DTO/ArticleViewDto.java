@@ -1,7 +1,5 @@
 package com.alphacodes.librarymanagementsystem.DTO;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Lob;
 import lombok.Data;
 
 @Data
@@ -10,8 +8,10 @@ public class ArticleViewDto {
     private String userID;
     private String title;
     private String body;
-    @Lob
-    @Column(name = "article_img", columnDefinition = "LONGBLOB")
-    private byte[] articleImg;
+    private long viewCount;
+    private long commentCount;
+    // Null when the article has no image. Images are fetched from these URLs, not embedded
+    private String imageUrl;
+    private String thumbnailUrl;
 }
 
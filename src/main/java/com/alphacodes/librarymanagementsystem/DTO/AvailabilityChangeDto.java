@@ -0,0 +1,15 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChangeDto {
+    private Long resourceId;
+    private String category;
+    // Copies on the shelf after the change
+    private Integer availability;
+}
@@ -0,0 +1,16 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
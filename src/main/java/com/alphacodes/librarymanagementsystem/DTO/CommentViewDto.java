@@ -0,0 +1,22 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentViewDto {
+    private Long commentId;
+    private String comment;
+    private String commenterId;
+    private String commenterName;
+
+    // Used by the comment page queries, which read the commenter's id and name and never load the User
+    public CommentViewDto(Long commentId, String comment, String commenterId,
+                          String commenterFirstName, String commenterLastName) {
+        this(commentId, comment, commenterId,
+                (commenterFirstName == null ? "" : commenterFirstName) + (commenterLastName == null ? "" : " " + commenterLastName));
+    }
+}
@@ -0,0 +1,18 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDto {
+    private Long resourceId;
+    private String title;
+    private String author;
+    // Counts within the requested window
+    private long borrows;
+    private double averageRating;
+    private long ratingCount;
+}
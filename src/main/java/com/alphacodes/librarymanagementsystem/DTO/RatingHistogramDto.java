@@ -0,0 +1,20 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingHistogramDto {
+    // Article or resource id
+    private Long id;
+    private long ratingCount;
+    // Null while nothing is rated
+    private Float averageRating;
+    // Star (1..5) to the number of ratings rounding to it
+    private Map<Integer, Long> stars;
+}
@@ -0,0 +1,18 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummaryDto {
+    // Article or resource id
+    private Long id;
+    // Null while nothing is rated
+    private Float averageRating;
+    private long ratingCount;
+    // Rating given by the requesting user, null if they have not rated it or no user was given
+    private Float userRating;
+}
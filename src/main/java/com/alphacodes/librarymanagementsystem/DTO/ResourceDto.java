@@ -1,11 +1,17 @@
 package com.alphacodes.librarymanagementsystem.DTO;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ResourceDto {
+    private Long resourceId;
     private String title;
     private String author;
     private Integer availability;
     private String category;
+    private Long commentCount;
 }
@@ -0,0 +1,18 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceFacetsDto {
+    private long total;
+    // Value -> number of matching resources, largest first
+    private Map<String, Long> categories;
+    private Map<String, Long> authors;
+    private Map<String, Long> availability;
+}
@@ -0,0 +1,17 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ResourceImportReportDto {
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    // One message per rejected row, capped so a bad file cannot blow up the response
+    private List<String> errors = new ArrayList<>();
+    // Set when the import stopped early, the rows counted in imported stay committed
+    private String failure;
+}
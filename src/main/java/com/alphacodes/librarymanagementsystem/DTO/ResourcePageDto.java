@@ -0,0 +1,16 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourcePageDto {
+    private List<ResourceDto> resources;
+    // Cursor for the next page, null when this is the last page
+    private Long next;
+}
@@ -0,0 +1,14 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingArticleDto {
+    private ArticleFeedItemDto article;
+    // Views with exponential decay, a view counts half after every half-life
+    private double score;
+}
@@ -9,5 +9,7 @@ public class UserProfileDto {
     private String firstName;
     private String lastName;
     private Role role;
-    private byte[] profileImg;
+    // Null when the user has no profile image. Images are fetched from these URLs, not embedded
+    private String profileImgUrl;
+    private String thumbnailUrl;
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.alphacodes.librarymanagementsystem.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBufferStatsDto {
+    private boolean enabled;
+    // Writes waiting for the next flush
+    private long depth;
+    private long accepted;
+    // Writes that replaced a still unflushed write of the same user and item
+    private long coalesced;
+    private long flushes;
+    private long failedFlushes;
+    private long flushedRows;
+    private long lastFlushMillis;
+    private long maxFlushMillis;
+    private double averageFlushMillis;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Date;
 import java.util.HashSet;
@@ -13,7 +14,8 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "articles")
+// Backs the keyset ordering of the article feed
+@Table(name = "articles", indexes = @Index(name = "idx_articles_date_created", columnList = "date_created, article_id"))
 public class Article {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +35,20 @@ public class Article {
     @Column(name = "article_img")
     private byte[] articleImg;
 
+    // Key of the image in the blob store, articleImg only holds images stored before it existed
+    @Column(name = "article_img_ref", length = 64)
+    private String articleImgRef;
+
+    // Written only by the batched flush of ArticleViewCounter, which also holds the views not flushed yet
+    @ColumnDefault("0")
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false)
+    private long viewCount;
+
+    // Kept by ArticleCommentService in the same transaction as the comment, rebuilt by CommentCountService
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false, insertable = false, updatable = false)
+    private long commentCount;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "author_id", nullable = false) // Changed to "author_id" assuming this is the foreign key name
     private User author;
@@ -10,6 +10,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 
 @Entity
+// One rating per article and member, a member rating again replaces their rating
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_article_rating_article_member", columnNames = {"articles", "member"}))
 public class ArticleRating {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,38 @@
+package com.alphacodes.librarymanagementsystem.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Borrows and ratings of a resource on one day. Issues are deleted on return, so this is the
+// only lasting record of how often a resource was borrowed and when.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+
+@Entity
+@Table(name = "resource_daily_activity",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"resource_id", "activity_date"}))
+public class ResourceDailyActivity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "resource_id", nullable = false)
+    private Long resourceId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(name = "borrows", nullable = false)
+    private long borrows;
+
+    @Column(name = "rating_sum", nullable = false)
+    private double ratingSum;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+}
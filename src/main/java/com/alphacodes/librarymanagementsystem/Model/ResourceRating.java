@@ -5,11 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 
 @Entity
+// One rating per member and book, a member rating again replaces their rating
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_resource_rating_member_book", columnNames = {"member", "book"}))
 public class ResourceRating {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,6 +28,10 @@ public class ResourceRating {
     @JoinColumn(name = "book", nullable = false)
     private Resource book;
 
+    // Day the current rating was given, null for ratings written before it was recorded
+    @Column(name = "rated_on")
+    private LocalDate ratedOn;
+
 
 
 }
@@ -0,0 +1,48 @@
+package com.alphacodes.librarymanagementsystem.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+// Running total of the ratings of a resource, kept in step with resource_rating by the rating service,
+// together with how many of those ratings fall on each star
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+
+@Entity
+@Table(name = "resource_rating_summary")
+public class ResourceRatingSummary {
+    @Id
+    @Column(name = "resource_id")
+    private Long resourceId;
+
+    @Column(name = "rating_sum", nullable = false)
+    private double ratingSum;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    // Number of ratings per star, see RatingStars for the rounding
+    @ColumnDefault("0")
+    @Column(name = "stars1", nullable = false)
+    private long stars1;
+
+    @ColumnDefault("0")
+    @Column(name = "stars2", nullable = false)
+    private long stars2;
+
+    @ColumnDefault("0")
+    @Column(name = "stars3", nullable = false)
+    private long stars3;
+
+    @ColumnDefault("0")
+    @Column(name = "stars4", nullable = false)
+    private long stars4;
+
+    @ColumnDefault("0")
+    @Column(name = "stars5", nullable = false)
+    private long stars5;
+}
@@ -0,0 +1,24 @@
+package com.alphacodes.librarymanagementsystem.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Precomputed "also liked" neighbors of a resource, best first.
+// Packed as (resource id long, score float) pairs, 12 bytes per neighbor, one row per resource.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+
+@Entity
+@Table(name = "resource_recommendation")
+public class ResourceRecommendation {
+    @Id
+    @Column(name = "resource_id")
+    private Long resourceId;
+
+    @Lob
+    @Column(name = "neighbors", nullable = false, columnDefinition = "BLOB")
+    private byte[] neighbors;
+}
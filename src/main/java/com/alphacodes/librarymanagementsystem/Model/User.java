@@ -28,6 +28,10 @@ public class User {
     @Column(name = "profile_img", columnDefinition = "LONGBLOB")
     private byte[] profileImg;
 
+    // Key of the profile image in the blob store, profileImg only holds images stored before it existed
+    @Column(name = "profile_img_ref", length = 64)
+    private String profileImgRef;
+
     String password;
 
     @Enumerated(EnumType.STRING)
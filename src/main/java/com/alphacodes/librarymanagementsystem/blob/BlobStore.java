@@ -0,0 +1,150 @@
+package com.alphacodes.librarymanagementsystem.blob;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Content-addressed file store for image bytes. A blob is named by the SHA-256 of its content
+// and kept at <root>/ab/cd/<hash>, so the same bytes are stored once however often they are uploaded.
+// Blobs are written to a temporary file and moved into place, readers never see a partial file.
+// Entities keep only the key. Files derived from a blob, such as resized images, are stored next to
+// it as variants named <hash>.<variant>.
+@Component
+public class BlobStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern VARIANT = Pattern.compile("[a-z]+");
+
+    private final Path root;
+    private final Path incoming;
+
+    public BlobStore(@Value("${library.blob-store.path:./data/blobs}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.incoming = this.root.resolve("incoming");
+        try {
+            Files.createDirectories(incoming);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create blob store at " + this.root, e);
+        }
+    }
+
+    public String put(byte[] data) {
+        return put(new ByteArrayInputStream(data));
+    }
+
+    // Streams the content to disk while hashing it, memory use does not depend on the size
+    public String put(InputStream content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return store(content, digest, null);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Key the given bytes are stored under
+    public static String keyOf(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Stores a file derived from the blob with the given key, replacing an earlier one
+    public void putVariant(String key, String variant, byte[] data) {
+        if (!isKey(key) || !VARIANT.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Invalid blob variant " + key + "." + variant);
+        }
+        store(new ByteArrayInputStream(data), null, path(key).resolveSibling(key + "." + variant));
+    }
+
+    // Writes to a temporary file first, the target is the content hash unless given
+    private String store(InputStream content, MessageDigest digest, Path fixedTarget) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(incoming, "blob", ".tmp");
+            OutputStream file = Files.newOutputStream(temp);
+            try (OutputStream out = digest == null ? file : new DigestOutputStream(file, digest)) {
+                content.transferTo(out);
+            }
+            String key = digest == null ? null : HexFormat.of().formatHex(digest.digest());
+
+            Path target = fixedTarget != null ? fixedTarget : path(key);
+            if (fixedTarget == null && Files.exists(target)) {
+                return key;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                // Replaces an existing target on POSIX file systems
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same content stored concurrently, either copy is fine
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return key;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Left behind in incoming/, harmless
+                }
+            }
+        }
+    }
+
+    // File of a stored blob, empty for unknown or malformed keys
+    public Optional<Path> find(String key) {
+        if (!isKey(key)) {
+            return Optional.empty();
+        }
+        Path path = path(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public Optional<Path> findVariant(String key, String variant) {
+        if (!isKey(key) || variant == null || !VARIANT.matcher(variant).matches()) {
+            return Optional.empty();
+        }
+        Path path = path(key).resolveSibling(key + "." + variant);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    public byte[] read(String key) {
+        Path path = find(key).orElseThrow(() -> new RuntimeException("Blob not found with key " + key));
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read blob " + key, e);
+        }
+    }
+
+    private static boolean isKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    private Path path(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
@@ -0,0 +1,162 @@
+package com.alphacodes.librarymanagementsystem.blob;
+
+import com.alphacodes.librarymanagementsystem.util.ImageUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+// Serves stored images over HTTP.
+// Blob files are named by the hash of their content, so the file name is a strong ETag and a
+// client that has the image gets a 304 instead of the bytes. The URLs stay the same when an image
+// is replaced, so clients revalidate on every use rather than caching blindly. Single byte ranges
+// are supported for resumed and partial downloads.
+// The file is written without copying it through the heap: on Tomcat's NIO connector it is handed
+// to the connector, which uses sendfile once the headers are written; elsewhere FileChannel.transferTo
+// copies it to the response stream.
+public class BlobTransfer {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Cached, but checked with the ETag before every use
+    private static final String CACHE_CONTROL = "public, no-cache";
+
+    // Serves a blob store file, or the part of it asked for with a Range header
+    public static void serve(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + file.getFileName() + "\"";
+        long[] range = prepare(etag, Files.size(file), ImageUtils.contentType(file), request, response);
+        if (range != null && !isHead(request)) {
+            send(file, range[0], range[1], request, response);
+        }
+    }
+
+    // Same for images still stored in a table row, the ETag is computed from the bytes
+    public static void serve(byte[] data, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + BlobStore.keyOf(data) + "\"";
+        long[] range = prepare(etag, data.length, ImageUtils.contentType(data), request, response);
+        if (range != null && !isHead(request)) {
+            response.getOutputStream().write(data, (int) range[0], (int) (range[1] - range[0]));
+        }
+    }
+
+    // Sends [start, end) of the file, headers other than the length must be set by the caller
+    public static void send(Path file, long start, long end,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(end - start);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // Writes the validator and caching headers and answers 304 and 416 itself.
+    // Returns [start, end) of the bytes to send, or null when there is no body
+    private static long[] prepare(String etag, long length, String contentType,
+                                  HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return null;
+        }
+        response.setContentType(Objects.requireNonNullElse(contentType, MediaType.APPLICATION_OCTET_STREAM_VALUE));
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A changed image is sent whole, not a part of the new one appended to the old one
+        if (rangeHeader == null || (ifRange != null && !ifRange.equals(etag))) {
+            response.setContentLengthLong(length);
+            return new long[]{0, length};
+        }
+
+        long[] range = parseRange(rangeHeader, length);
+        if (range == null) {
+            // Malformed or several ranges, ignoring the header is allowed
+            response.setContentLengthLong(length);
+            return new long[]{0, length};
+        }
+        if (range[0] >= range[1]) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return null;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range[0] + "-" + (range[1] - 1) + "/" + length);
+        response.setContentLengthLong(range[1] - range[0]);
+        return range;
+    }
+
+    // One range of "bytes=first-last", "bytes=first-" or "bytes=-suffix" as [start, end),
+    // start >= end when it is out of bounds, null when it cannot be parsed
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix < 0) {
+                    return null;
+                }
+                return suffix == 0 ? new long[]{length, length} : new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            if (!last.isEmpty() && Long.parseLong(last) < start) {
+                return null;
+            }
+            long end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            return new long[]{start, Math.max(start, end)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // If-None-Match uses the weak comparison, W/ prefixes are ignored
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHead(HttpServletRequest request) {
+        return "HEAD".equals(request.getMethod());
+    }
+}
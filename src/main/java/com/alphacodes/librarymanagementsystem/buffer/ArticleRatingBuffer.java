@@ -0,0 +1,206 @@
+package com.alphacodes.librarymanagementsystem.buffer;
+
+import com.alphacodes.librarymanagementsystem.DTO.WriteBufferStatsDto;
+import com.alphacodes.librarymanagementsystem.event.ArticleDeletedEvent;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRatingRepository;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRepository;
+import com.alphacodes.librarymanagementsystem.util.RatingStars;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind buffer for article ratings, used when library.article-rating.write-behind.enabled is set.
+// Ratings are kept per (article, user) with the last write winning and written every flush-millis
+// with batched statements, so repeated clicks during a burst cost one row write instead of four queries each.
+// Entries leave the buffer only after their flush committed; readers check the buffer first.
+@Component
+public class ArticleRatingBuffer {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String UPDATE_SQL = "UPDATE article_rating SET rating = ? WHERE articles = ? AND member = ?";
+    private static final String INSERT_SQL = "INSERT INTO article_rating (articles, member, rating) VALUES (?, ?, ?)";
+    private static final String SUMMARY_SQL = "INSERT INTO article_rating_summary (article_id, rating_sum, rating_count, " +
+            "stars1, stars2, stars3, stars4, stars5) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE rating_sum = rating_sum + VALUES(rating_sum), " +
+            "rating_count = rating_count + VALUES(rating_count), " +
+            "stars1 = stars1 + VALUES(stars1), stars2 = stars2 + VALUES(stars2), stars3 = stars3 + VALUES(stars3), " +
+            "stars4 = stars4 + VALUES(stars4), stars5 = stars5 + VALUES(stars5)";
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleRatingBuffer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArticleRatingRepository articleRatingRepository;
+    private final ArticleRepository articleRepository;
+    private final boolean enabled;
+
+    private final Map<Key, Float> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushMillis = new LongAdder();
+    private volatile long lastFlushMillis;
+    private volatile long maxFlushMillis;
+
+    public ArticleRatingBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               ArticleRatingRepository articleRatingRepository, ArticleRepository articleRepository,
+                               @Value("${library.article-rating.write-behind.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.articleRatingRepository = articleRatingRepository;
+        this.articleRepository = articleRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void put(int articleId, String userId, float rating) {
+        accepted.increment();
+        if (pending.put(new Key(articleId, userId), rating) != null) {
+            coalesced.increment();
+        }
+    }
+
+    // Drop the ratings of a deleted article that are not written yet, once the delete has committed.
+    // A rating accepted in between is dropped by the flush, which skips articles that are gone
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleDeleted(ArticleDeletedEvent event) {
+        discardArticle(event.getArticleId());
+    }
+
+    public void discardArticle(int articleId) {
+        pending.keySet().removeIf(key -> key.articleId() == articleId);
+    }
+
+    // Rating of the user that is accepted but not written yet
+    public Optional<Float> peek(int articleId, String userId) {
+        return Optional.ofNullable(pending.get(new Key(articleId, userId)));
+    }
+
+    @Scheduled(fixedDelayString = "${library.article-rating.write-behind.flush-millis:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Map.Entry<Key, Float>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<Key, Float> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        try {
+            for (int from = 0; from < batch.size(); from += CHUNK_SIZE) {
+                List<Map.Entry<Key, Float>> chunk = batch.subList(from, Math.min(from + CHUNK_SIZE, batch.size()));
+                transactionTemplate.executeWithoutResult(status -> write(chunk));
+                // A newer rating accepted during the flush stays for the next one
+                for (Map.Entry<Key, Float> entry : chunk) {
+                    pending.remove(entry.getKey(), entry.getValue());
+                }
+                flushedRows.add(chunk.size());
+            }
+        } catch (RuntimeException e) {
+            // Whatever was not written stays buffered and is retried on the next flush
+            failedFlushes.increment();
+            log.error("Flushing buffered article ratings failed, {} still pending", pending.size(), e);
+        } finally {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            flushes.increment();
+            flushMillis.add(millis);
+            lastFlushMillis = millis;
+            maxFlushMillis = Math.max(maxFlushMillis, millis);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("{} buffered article ratings could not be written before shutdown", pending.size());
+        }
+    }
+
+    public WriteBufferStatsDto stats() {
+        long flushCount = flushes.sum();
+        return new WriteBufferStatsDto(enabled, pending.size(), accepted.sum(), coalesced.sum(), flushCount,
+                failedFlushes.sum(), flushedRows.sum(), lastFlushMillis, maxFlushMillis,
+                flushCount == 0 ? 0 : (double) flushMillis.sum() / flushCount);
+    }
+
+    private void write(List<Map.Entry<Key, Float>> chunk) {
+        Set<Integer> articleIds = new HashSet<>();
+        Set<String> userIds = new HashSet<>();
+        for (Map.Entry<Key, Float> entry : chunk) {
+            articleIds.add(entry.getKey().articleId());
+            userIds.add(entry.getKey().userId());
+        }
+
+        // Ratings on articles deleted since they were accepted are dropped. The shared lock keeps the
+        // articles from being deleted before this chunk commits, a delete in progress is waited for
+        Set<Integer> liveArticles = new HashSet<>(articleRepository.findExistingIdsForShare(articleIds));
+        Map<Key, Float> existing = new HashMap<>();
+        for (Object[] row : articleRatingRepository.findRatings(articleIds, userIds)) {
+            existing.put(new Key((Integer) row[0], (String) row[1]), (Float) row[2]);
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        // Per article: sum, count and the five star counters
+        Map<Integer, double[]> summaryDeltas = new HashMap<>();
+        for (Map.Entry<Key, Float> entry : chunk) {
+            Key key = entry.getKey();
+            if (!liveArticles.contains(key.articleId())) {
+                continue;
+            }
+            float rating = entry.getValue();
+            Float previous = existing.get(key);
+            double[] delta = summaryDeltas.computeIfAbsent(key.articleId(), id -> new double[7]);
+            long[] stars = RatingStars.deltas(previous, rating);
+            for (int i = 0; i < stars.length; i++) {
+                delta[2 + i] += stars[i];
+            }
+            if (previous != null) {
+                updates.add(new Object[]{rating, key.articleId(), key.userId()});
+                delta[0] += rating - previous;
+            } else {
+                inserts.add(new Object[]{key.articleId(), key.userId(), rating});
+                delta[0] += rating;
+                delta[1]++;
+            }
+        }
+
+        List<Object[]> summaries = new ArrayList<>(summaryDeltas.size());
+        for (Map.Entry<Integer, double[]> delta : summaryDeltas.entrySet()) {
+            double[] value = delta.getValue();
+            summaries.add(new Object[]{delta.getKey(), value[0], (long) value[1],
+                    (long) value[2], (long) value[3], (long) value[4], (long) value[5], (long) value[6]});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        jdbcTemplate.batchUpdate(SUMMARY_SQL, summaries);
+    }
+
+    private record Key(int articleId, String userId) {
+    }
+}
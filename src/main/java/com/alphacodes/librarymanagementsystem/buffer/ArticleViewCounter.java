@@ -0,0 +1,231 @@
+package com.alphacodes.librarymanagementsystem.buffer;
+
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedItemDto;
+import com.alphacodes.librarymanagementsystem.DTO.TrendingArticleDto;
+import com.alphacodes.librarymanagementsystem.event.ArticleDeletedEvent;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Article view counts without a row update per view.
+// Every article has a LongAdder, which spreads concurrent increments over striped cells instead of
+// one contended value, so counting a view never takes a lock. Every flush-millis the views counted
+// since the last flush are added to articles.view_count with one batched statement.
+// The same flush keeps the trending score: each article's score decays by the elapsed time and gains
+// its new views, so a view counts half after every half-life. The top articles are kept as a snapshot
+// and served from memory. Articles whose score decayed to 0 and have nothing left to flush are dropped
+// from the map until they are viewed again.
+@Component
+public class ArticleViewCounter {
+
+    private static final String FLUSH_SQL = "UPDATE articles SET view_count = view_count + ? WHERE article_id = ?";
+
+    // Scores below this no longer rank and the article is not scored until it is viewed again
+    private static final double MIN_SCORE = 0.01;
+
+    // Titles of articles that stay in the trending list are reused for this long before being read again
+    private static final long TRENDING_LOOKUP_MILLIS = 60_000;
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleViewCounter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArticleRepository articleRepository;
+    private final double decayPerMilli;
+    private final int trendingSize;
+
+    private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+    private volatile List<TrendingArticleDto> trending = List.of();
+    private long lastFlush = System.currentTimeMillis();
+    // Counters dropped by the previous flush. A view that looked one up just before it was dropped can
+    // still land in it, so it is flushed once more before it is forgotten
+    private List<Map.Entry<Integer, Counter>> retired = List.of();
+    // Titles and authors of the trending articles, only touched by the flush
+    private Map<Integer, ArticleFeedItemDto> trendingArticles = Map.of();
+    private long trendingLookedUpAt;
+
+    public ArticleViewCounter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              ArticleRepository articleRepository,
+                              @Value("${library.article-views.trending-half-life-minutes:60}") double halfLifeMinutes,
+                              @Value("${library.article-views.trending-size:50}") int trendingSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.articleRepository = articleRepository;
+        this.decayPerMilli = Math.log(2) / (halfLifeMinutes * 60_000);
+        this.trendingSize = trendingSize;
+    }
+
+    public void recordView(int articleId) {
+        Counter counter = counters.get(articleId);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(articleId, id -> new Counter());
+        }
+        counter.views.increment();
+    }
+
+    // Views counted but not flushed yet, add to the stored view_count for the current total
+    public long pendingViews(int articleId) {
+        Counter counter = counters.get(articleId);
+        return counter == null ? 0 : counter.views.sum() - counter.flushed;
+    }
+
+    // Best `limit` articles of the last snapshot
+    public List<TrendingArticleDto> trending(int limit) {
+        List<TrendingArticleDto> snapshot = trending;
+        return snapshot.subList(0, Math.min(Math.max(limit, 0), snapshot.size()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleDeleted(ArticleDeletedEvent event) {
+        counters.remove(event.getArticleId());
+    }
+
+    @Scheduled(fixedDelayString = "${library.article-views.flush-millis:5000}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        double decay = Math.exp(-decayPerMilli * (now - lastFlush));
+        lastFlush = now;
+
+        // Views are read once, the write and the score use the same numbers
+        List<Object[]> updates = new ArrayList<>();
+        List<Counter> flushed = new ArrayList<>();
+        List<Long> totals = new ArrayList<>();
+        for (Map.Entry<Integer, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            long total = counter.views.sum();
+            long delta = total - counter.flushed;
+            counter.score = counter.score * decay + delta;
+            if (counter.score < MIN_SCORE) {
+                counter.score = 0;
+            }
+            if (delta > 0) {
+                updates.add(new Object[]{delta, entry.getKey()});
+                flushed.add(counter);
+                totals.add(total);
+            }
+        }
+        for (Map.Entry<Integer, Counter> entry : retired) {
+            Counter counter = entry.getValue();
+            long total = counter.views.sum();
+            if (total > counter.flushed) {
+                updates.add(new Object[]{total - counter.flushed, entry.getKey()});
+                flushed.add(counter);
+                totals.add(total);
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, updates));
+                // Only advanced once written, a failed flush is retried with the views added since
+                for (int i = 0; i < flushed.size(); i++) {
+                    flushed.get(i).flushed = totals.get(i);
+                }
+            } catch (RuntimeException e) {
+                log.error("Flushing {} article view counts failed, retrying on the next flush", updates.size(), e);
+            }
+        }
+        retire();
+        refreshTrending(now);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Drops idle counters so the map only holds articles viewed within the last few half-lives.
+    // A retired counter that still has unflushed views, after a failed flush, is kept for the next one
+    private void retire() {
+        List<Map.Entry<Integer, Counter>> next = new ArrayList<>();
+        for (Map.Entry<Integer, Counter> entry : retired) {
+            if (entry.getValue().views.sum() > entry.getValue().flushed) {
+                next.add(entry);
+            }
+        }
+        for (Map.Entry<Integer, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            if (counter.score == 0 && counter.views.sum() == counter.flushed
+                    && counters.remove(entry.getKey(), counter)) {
+                next.add(Map.entry(entry.getKey(), counter));
+            }
+        }
+        retired = next;
+    }
+
+    private void refreshTrending(long now) {
+        // Min-heap holding the best `trendingSize` scores seen so far
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Counter> entry : counters.entrySet()) {
+            double score = entry.getValue().score;
+            if (score <= 0) {
+                continue;
+            }
+            if (heap.size() < trendingSize) {
+                heap.add(Map.entry(entry.getKey(), score));
+            } else if (score > heap.peek().getValue()) {
+                heap.poll();
+                heap.add(Map.entry(entry.getKey(), score));
+            }
+        }
+        if (heap.isEmpty()) {
+            trending = List.of();
+            trendingArticles = Map.of();
+            return;
+        }
+
+        List<Map.Entry<Integer, Double>> top = new ArrayList<>(heap);
+        top.sort(Map.Entry.<Integer, Double>comparingByValue().reversed());
+        // Titles and authors are read only for articles new to the list, and for all of them once a minute
+        // so edits show up. Deleted articles drop out, their counters are removed on delete
+        boolean lookUpAll = now - trendingLookedUpAt >= TRENDING_LOOKUP_MILLIS;
+        List<Integer> missing = new ArrayList<>();
+        for (Map.Entry<Integer, Double> entry : top) {
+            if (lookUpAll || !trendingArticles.containsKey(entry.getKey())) {
+                missing.add(entry.getKey());
+            }
+        }
+        Map<Integer, ArticleFeedItemDto> articles = new HashMap<>();
+        if (!missing.isEmpty()) {
+            articles.putAll(articleRepository.findFeedItemsByIdIn(missing).stream()
+                    .collect(Collectors.toMap(ArticleFeedItemDto::getArticleId, Function.identity())));
+        }
+        if (lookUpAll) {
+            trendingLookedUpAt = now;
+        }
+        List<TrendingArticleDto> snapshot = new ArrayList<>(top.size());
+        for (Map.Entry<Integer, Double> entry : top) {
+            ArticleFeedItemDto article = articles.computeIfAbsent(entry.getKey(), trendingArticles::get);
+            if (article != null) {
+                snapshot.add(new TrendingArticleDto(article, entry.getValue()));
+            }
+        }
+        trendingArticles = articles;
+        trending = List.copyOf(snapshot);
+    }
+
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        // Views already added to view_count, written only by the flush
+        private volatile long flushed;
+        // Decayed views, only touched by the flush
+        private double score;
+    }
+}
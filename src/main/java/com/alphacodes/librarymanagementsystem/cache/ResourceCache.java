@@ -0,0 +1,173 @@
+package com.alphacodes.librarymanagementsystem.cache;
+
+import com.alphacodes.librarymanagementsystem.DTO.CacheStatsDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.Model.Resource;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
+import com.alphacodes.librarymanagementsystem.event.ResourceCommentedEvent;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded read-through cache of resources by id.
+// Entries live in a ConcurrentHashMap, so hits take no lock; a hit only stamps the entry's last access.
+// Once max-size is passed, one thread drops the least recently used tenth of the entries, and every
+// entry expires after ttl-seconds.
+// Writers evict the ids they change, availability and comment count changes are evicted once their transaction commits.
+// An eviction also bumps the generation of the id's stripe; a load that started before it is not cached,
+// so a value read before a change cannot be put back after the change was evicted.
+@Component
+public class ResourceCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final ResourceRepository resourceRepository;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final ReentrantLock trimLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResourceCache(ResourceRepository resourceRepository,
+                         @Value("${library.resource-cache.max-size:10000}") int maxSize,
+                         @Value("${library.resource-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.resourceRepository = resourceRepository;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    // Returns a copy, callers are free to modify it
+    public Optional<ResourceDto> get(Long resourceId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(resourceId);
+        if (entry != null && entry.expiresAt > now) {
+            entry.lastAccess = now;
+            hits.increment();
+            return Optional.of(copy(entry.value));
+        }
+        if (entry != null && entries.remove(resourceId, entry)) {
+            evictions.increment();
+        }
+
+        // Load without holding anything so one slow query does not block other lookups
+        misses.increment();
+        int stripe = stripe(resourceId);
+        long generation = generations.get(stripe);
+        List<ResourceDto> loaded = resourceRepository.findDtosByIdIn(List.of(resourceId));
+        if (loaded.isEmpty()) {
+            return Optional.empty();
+        }
+        ResourceDto value = loaded.get(0);
+        // Checked and put atomically for the key, an eviction since the load started keeps the old mapping
+        entries.compute(resourceId, (key, current) ->
+                generations.get(stripe) == generation ? new Entry(value, now + ttlMillis, now) : current);
+        if (entries.size() > maxSize) {
+            trim();
+        }
+        return Optional.of(copy(value));
+    }
+
+    public boolean exists(Long resourceId) {
+        return get(resourceId).isPresent();
+    }
+
+    // Entity reference for use as a foreign key, checked against the cache instead of loading the row
+    public Resource getReference(Long resourceId) {
+        if (!exists(resourceId)) {
+            throw new RuntimeException("Resource not found with id " + resourceId);
+        }
+        return resourceRepository.getReferenceById(resourceId);
+    }
+
+    public void evict(Long resourceId) {
+        // Bumped before the removal, a load that puts after the removal sees the new generation
+        generations.incrementAndGet(stripe(resourceId));
+        if (entries.remove(resourceId) != null) {
+            evictions.increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(ResourceAvailabilityChangedEvent event) {
+        evict(event.getResourceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommented(ResourceCommentedEvent event) {
+        evict(event.getResourceId());
+    }
+
+    public CacheStatsDto stats() {
+        long size = entries.size();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new CacheStatsDto(size, hitCount, missCount, evictions.sum(),
+                lookups == 0 ? 0 : (double) hitCount / lookups);
+    }
+
+    private static ResourceDto copy(ResourceDto value) {
+        return new ResourceDto(value.getResourceId(), value.getTitle(), value.getAuthor(),
+                value.getAvailability(), value.getCategory(), value.getCommentCount());
+    }
+
+    // Drops the least recently used entries down to nine tenths of max-size, one thread at a time
+    private void trim() {
+        if (!trimLock.tryLock()) {
+            return;
+        }
+        try {
+            int excess = entries.size() - maxSize * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            // Access times are copied first, hits keep changing them while the list is sorted
+            List<Candidate> oldest = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> oldest.add(new Candidate(key, entry, entry.lastAccess)));
+            oldest.sort(Comparator.comparingLong(Candidate::lastAccess));
+            for (Candidate candidate : oldest.subList(0, Math.min(excess, oldest.size()))) {
+                if (entries.remove(candidate.key(), candidate.entry())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private static int stripe(Long resourceId) {
+        return Long.hashCode(resourceId) & (GENERATION_STRIPES - 1);
+    }
+
+    private record Candidate(Long key, Entry entry, long lastAccess) {
+    }
+
+    private static final class Entry {
+        private final ResourceDto value;
+        private final long expiresAt;
+        // Written by every hit without a lock, only read to pick entries to trim
+        private volatile long lastAccess;
+
+        private Entry(ResourceDto value, long expiresAt, long lastAccess) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
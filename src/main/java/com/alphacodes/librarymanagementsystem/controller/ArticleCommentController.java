@@ -1,6 +1,7 @@
 package com.alphacodes.librarymanagementsystem.controller;
 
 import com.alphacodes.librarymanagementsystem.DTO.ArticleCommentDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentPageDto;
 import com.alphacodes.librarymanagementsystem.Model.ArticleComment;
 import com.alphacodes.librarymanagementsystem.service.ArticleCommentService;
 import org.springframework.http.HttpStatus;
@@ -29,6 +30,14 @@ public class ArticleCommentController {
         return articleCommentService.getAllArticleComments(articleId);
     }
 
+    // One page of comments, oldest first; pass `next` of the last page as `after`
+    @GetMapping("/{articleId}/comments")
+    public CommentPageDto getArticleCommentPage(@PathVariable int articleId,
+                                                @RequestParam(required = false) Integer after,
+                                                @RequestParam(defaultValue = "20") int size) {
+        return articleCommentService.getArticleCommentPage(articleId, after, size);
+    }
+
     @DeleteMapping("/{articleId}/comment/{articleCommentId}")
     public ResponseEntity<String> deleteArticleComment(@PathVariable int articleId, @PathVariable int articleCommentId) {
         return new ResponseEntity<>(articleCommentService.deleteArticleComment(articleId, articleCommentId), HttpStatus.NO_CONTENT);
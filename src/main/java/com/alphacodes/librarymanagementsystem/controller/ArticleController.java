@@ -1,17 +1,28 @@
 package com.alphacodes.librarymanagementsystem.controller;
 
 import com.alphacodes.librarymanagementsystem.DTO.ArticleDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedItemDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedPageDto;
 import com.alphacodes.librarymanagementsystem.DTO.ArticleViewDto;
+import com.alphacodes.librarymanagementsystem.DTO.TrendingArticleDto;
 import com.alphacodes.librarymanagementsystem.Model.Article;
+import com.alphacodes.librarymanagementsystem.blob.BlobTransfer;
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.ArticleService;
-import com.alphacodes.librarymanagementsystem.util.ImageUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/article")
@@ -44,6 +55,54 @@ public class ArticleController {
         }
     }
 
+    // Paginated article feed without image bytes or full bodies. Pass the returned next cursor as cursor
+    @GetMapping("/feed")
+    public ArticleFeedPageDto getArticleFeed(@RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int size) {
+        return articleService.getArticleFeed(cursor, size);
+    }
+
+    // Articles with the most recent views, refreshed every few seconds
+    @GetMapping("/trending")
+    public List<TrendingArticleDto> getTrendingArticles(@RequestParam(defaultValue = "20") int limit) {
+        return articleService.getTrendingArticles(limit);
+    }
+
+    // Ranked search over titles and bodies. q, authorId and the from/to dates (yyyy-MM-dd, inclusive) are all optional
+    @GetMapping("/search")
+    public List<ArticleFeedItemDto> searchArticles(@RequestParam(required = false) String q,
+                                                   @RequestParam(required = false) String authorId,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+        return articleService.searchArticles(q, fuzzy, authorId, from, to, limit);
+    }
+
+    // Image of an article, as linked from the feed. size is thumbnail, medium or original
+    @GetMapping("/{articleID}/image")
+    public void getArticleImage(@PathVariable int articleID, @RequestParam(defaultValue = "original") String size,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageRendition rendition;
+        try {
+            rendition = ImageRendition.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        try {
+            Optional<Path> file = articleService.getArticleImageFile(articleID, rendition);
+            if (file.isPresent()) {
+                BlobTransfer.serve(file.get(), request, response);
+            } else {
+                // Image still stored in the article row
+                BlobTransfer.serve(articleService.getArticleImage(articleID), request, response);
+            }
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
     @GetMapping("/{articleID}")
     public ResponseEntity<ArticleDto> getArticleById(@PathVariable int articleID) {
         try {
@@ -105,10 +164,8 @@ public class ArticleController {
             article.setUserID(authorId);
 
             if (articleImg != null) {
-
-                //article.setArticleImg(articleImg.getBytes());
-                // use image utils
-                article.setArticleImg(ImageUtils.compressBytes(articleImg.getBytes()));
+                // Stored as uploaded, JPEG and PNG do not shrink under deflate
+                article.setArticleImg(articleImg.getBytes());
             } else {
                 article.setArticleImg(null);
             }
@@ -165,9 +222,4 @@ public class ArticleController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-
-    //TODO: Search Articles By heading
-    //TODO: Search Articles By author
-    //TODO: Search Articles By date
-    //TODO: Search Articles by content
 }
\ No newline at end of file
@@ -1,20 +1,29 @@
 package com.alphacodes.librarymanagementsystem.controller;
 
 import com.alphacodes.librarymanagementsystem.DTO.RatingDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingHistogramDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingSummaryDto;
+import com.alphacodes.librarymanagementsystem.DTO.WriteBufferStatsDto;
+import com.alphacodes.librarymanagementsystem.buffer.ArticleRatingBuffer;
 import com.alphacodes.librarymanagementsystem.service.ArticleRatingService;
 import org.springframework.data.crossstore.ChangeSetPersister;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/article")
 public class ArticleRatingController {
 
     private final ArticleRatingService articleRatingService;
 
-    public ArticleRatingController(ArticleRatingService articleRatingService){
+    private final ArticleRatingBuffer articleRatingBuffer;
+
+    public ArticleRatingController(ArticleRatingService articleRatingService, ArticleRatingBuffer articleRatingBuffer){
         this.articleRatingService = articleRatingService;
+        this.articleRatingBuffer = articleRatingBuffer;
     }
 
     // Add a new rating to an article
@@ -27,6 +36,25 @@ public class ArticleRatingController {
     @GetMapping("/{articleID}/rating")
     public float getArticleRating(@PathVariable int articleID) {return articleRatingService.getArticleRating(articleID);}
 
+    // Get the number of ratings per star for an article
+    @GetMapping("/{articleID}/rating/histogram")
+    public RatingHistogramDto getArticleRatingHistogram(@PathVariable int articleID) {
+        return articleRatingService.getArticleRatingHistogram(articleID);
+    }
+
+    // Get the average, count and the user's own rating for many articles at once, e.g. ?ids=1,2,3&userId=u1
+    @GetMapping("/ratings")
+    public List<RatingSummaryDto> getArticleRatings(@RequestParam List<Integer> ids,
+                                                    @RequestParam(required = false) String userId) {
+        return articleRatingService.getArticleRatings(ids, userId);
+    }
+
+    // Depth and flush timings of the write-behind rating buffer
+    @GetMapping("/rating/buffer/stats")
+    public WriteBufferStatsDto getRatingBufferStats() {
+        return articleRatingBuffer.stats();
+    }
+
     // Get article rating by user Id and article Id
     @GetMapping("/{articleID}/rating/{userId}")
     public ResponseEntity<Float> getArticleRatingByUserId(@PathVariable int articleID, @PathVariable String userId) {
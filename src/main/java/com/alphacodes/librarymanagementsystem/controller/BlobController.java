@@ -0,0 +1,21 @@
+package com.alphacodes.librarymanagementsystem.controller;
+
+import com.alphacodes.librarymanagementsystem.service.BlobMigrationService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class BlobController {
+
+    private final BlobMigrationService blobMigrationService;
+
+    public BlobController(BlobMigrationService blobMigrationService) {
+        this.blobMigrationService = blobMigrationService;
+    }
+
+    // Move images still stored in the database to the blob store
+    @PostMapping("/blob/migrate")
+    public String migrateImages() {
+        return "Moved " + blobMigrationService.migrateImages() + " images to the blob store";
+    }
+}
@@ -0,0 +1,21 @@
+package com.alphacodes.librarymanagementsystem.controller;
+
+import com.alphacodes.librarymanagementsystem.service.CommentCountService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class CommentCountController {
+
+    private final CommentCountService commentCountService;
+
+    public CommentCountController(CommentCountService commentCountService) {
+        this.commentCountService = commentCountService;
+    }
+
+    // Recount the comment counters of articles and resources
+    @PostMapping("/comment/counts/rebuild")
+    public String rebuildCommentCounts() {
+        return "Recounted comments of " + commentCountService.rebuildCommentCounts() + " articles and resources";
+    }
+}
@@ -0,0 +1,42 @@
+package com.alphacodes.librarymanagementsystem.controller;
+
+import com.alphacodes.librarymanagementsystem.DTO.LeaderboardEntryDto;
+import com.alphacodes.librarymanagementsystem.enums.LeaderboardMetric;
+import com.alphacodes.librarymanagementsystem.enums.LeaderboardWindow;
+import com.alphacodes.librarymanagementsystem.service.LeaderboardService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/resource/leaderboard")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    // Best rated resources, window is week, month or all
+    @GetMapping("/rated")
+    public List<LeaderboardEntryDto> getTopRated(@RequestParam(defaultValue = "all") String window,
+                                                 @RequestParam(defaultValue = "10") int limit) {
+        return leaderboardService.getLeaderboard(LeaderboardMetric.RATED, toWindow(window), limit);
+    }
+
+    // Most borrowed resources, window is week, month or all
+    @GetMapping("/borrowed")
+    public List<LeaderboardEntryDto> getMostBorrowed(@RequestParam(defaultValue = "all") String window,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        return leaderboardService.getLeaderboard(LeaderboardMetric.BORROWED, toWindow(window), limit);
+    }
+
+    private static LeaderboardWindow toWindow(String window) {
+        try {
+            return LeaderboardWindow.valueOf(window.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown leaderboard window " + window);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.alphacodes.librarymanagementsystem.controller;
+
+import com.alphacodes.librarymanagementsystem.service.RatingCompactionService;
+import com.alphacodes.librarymanagementsystem.service.RatingSummaryService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class RatingSummaryController {
+
+    private final RatingSummaryService ratingSummaryService;
+    private final RatingCompactionService ratingCompactionService;
+
+    public RatingSummaryController(RatingSummaryService ratingSummaryService,
+                                   RatingCompactionService ratingCompactionService) {
+        this.ratingSummaryService = ratingSummaryService;
+        this.ratingCompactionService = ratingCompactionService;
+    }
+
+    // Recompute rating averages and histograms from the raw ratings
+    @PostMapping("/rating/summaries/rebuild")
+    public String rebuildRatingSummaries() {
+        long resources = ratingSummaryService.rebuildResourceSummaries();
+        long articles = ratingSummaryService.rebuildArticleSummaries();
+        return "Rebuilt rating summaries for " + resources + " resources and " + articles + " articles";
+    }
+
+    // Collapse repeated resource ratings of a member to their latest one
+    @PostMapping("/rating/resources/compact")
+    public String compactResourceRatings() {
+        return "Removed " + ratingCompactionService.compactResourceRatings() + " superseded resource ratings";
+    }
+
+    // Collapse repeated article ratings of a member to their latest one
+    @PostMapping("/rating/articles/compact")
+    public String compactArticleRatings() {
+        return "Removed " + ratingCompactionService.compactArticleRatings() + " superseded article ratings";
+    }
+}
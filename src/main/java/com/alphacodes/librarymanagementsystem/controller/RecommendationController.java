@@ -0,0 +1,31 @@
+package com.alphacodes.librarymanagementsystem.controller;
+
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.service.RecommendationService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/resource")
+public class RecommendationController {
+
+    private final RecommendationService recommendationService;
+
+    public RecommendationController(RecommendationService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    // Readers who liked this resource also liked these
+    @GetMapping("/{resourceId}/recommendations")
+    public List<ResourceDto> getRecommendations(@PathVariable Long resourceId,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        return recommendationService.getRecommendations(resourceId, limit);
+    }
+
+    // Recompute the recommendations now instead of waiting for the nightly build
+    @PostMapping("/recommendations/rebuild")
+    public String rebuildRecommendations() {
+        return "Built recommendations for " + recommendationService.rebuildRecommendations() + " resources";
+    }
+}
@@ -1,6 +1,7 @@
 package com.alphacodes.librarymanagementsystem.controller;
 
 import com.alphacodes.librarymanagementsystem.DTO.CommentDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentPageDto;
 import com.alphacodes.librarymanagementsystem.service.ResourceCommentService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +31,14 @@ public class ResourceCommentController {
         return resourceCommentService.getAllResourceComments(resourceId);
     }
 
+    // Get one page of comments for a resource, oldest first; pass `next` of the last page as `after`
+    @GetMapping("/{resourceId}/comments")
+    public CommentPageDto getResourceCommentPage(@PathVariable Long resourceId,
+                                                 @RequestParam(required = false) Long after,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        return resourceCommentService.getResourceCommentPage(resourceId, after, size);
+    }
+
     // Get a comment by its ID
     @GetMapping("/{resourceId}/comment/{resourceCommentId}")
     public ResponseEntity<CommentDto> getResourceCommentById(@PathVariable Long resourceCommentId, @PathVariable Long resourceId) {
@@ -1,19 +1,39 @@
 package com.alphacodes.librarymanagementsystem.controller;
 
+import com.alphacodes.librarymanagementsystem.DTO.CacheStatsDto;
 import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceFacetsDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceImportReportDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourcePageDto;
+import com.alphacodes.librarymanagementsystem.DTO.SuggestionDto;
+import com.alphacodes.librarymanagementsystem.cache.ResourceCache;
+import com.alphacodes.librarymanagementsystem.feed.AvailabilityFeed;
+import com.alphacodes.librarymanagementsystem.service.ResourceImportService;
 import com.alphacodes.librarymanagementsystem.service.ResourceService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 public class ResourceController {
     private final ResourceService resourceService;
+    private final ResourceImportService resourceImportService;
+    private final ResourceCache resourceCache;
+    private final AvailabilityFeed availabilityFeed;
 
-    public ResourceController(ResourceService resourceService) {
+    public ResourceController(ResourceService resourceService, ResourceImportService resourceImportService,
+                              ResourceCache resourceCache, AvailabilityFeed availabilityFeed) {
         this.resourceService = resourceService;
+        this.resourceImportService = resourceImportService;
+        this.resourceCache = resourceCache;
+        this.availabilityFeed = availabilityFeed;
     }
 
     // Add a new resource
@@ -22,12 +42,41 @@ public class ResourceController {
         return new ResponseEntity<>(resourceService.addResource(resourceDto), HttpStatus.CREATED);
     }
 
+    // Bulk import resources from a CSV body (with header row), streamed row by row
+    @PostMapping(value = "/resource/import", consumes = "text/csv")
+    public ResponseEntity<ResourceImportReportDto> importResourcesCsv(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(resourceImportService.importCsv(body));
+        } catch (IllegalArgumentException e) {
+            // Missing header columns, nothing was imported
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // Bulk import resources from a JSON array body, streamed element by element
+    @PostMapping(value = "/resource/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResourceImportReportDto> importResourcesJson(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(resourceImportService.importJson(body));
+        } catch (IllegalArgumentException e) {
+            // Body is not a JSON array, nothing was imported
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     // Get all resources
     @GetMapping("/resource")
     public List<ResourceDto> getAllResources() {
         return resourceService.getAllResources();
     }
 
+    // Get one page of resources, ordered by id. Pass the returned next cursor as after
+    @GetMapping("/resource/page")
+    public ResourcePageDto getResourcePage(@RequestParam(required = false) Long after,
+                                           @RequestParam(defaultValue = "50") int size) {
+        return resourceService.getResourcePage(after, size);
+    }
+
     // Get a resource by its ID
     @GetMapping("/resource/{resourceId}")
     public ResponseEntity<ResourceDto> getResourceById(@PathVariable Long resourceId) {
@@ -47,10 +96,38 @@ public class ResourceController {
         return new ResponseEntity<>(resourceService.updateResource(resourceId, resourceDto), HttpStatus.OK);
     }
 
-    // Search for a resource by keyword
+    // Search for a resource by keyword, fuzzy=true also tolerates typos
     @GetMapping("/resource/search")
-    public List<ResourceDto> searchResource(@RequestParam String keyword) {
-        return resourceService.searchResource(keyword);
+    public List<ResourceDto> searchResource(@RequestParam String keyword,
+                                            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return resourceService.searchResource(keyword, fuzzy);
+    }
+
+    // Server-sent stream of availability changes for the given resources and/or categories, or all of them
+    @GetMapping(value = "/resource/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(required = false) List<Long> resourceIds,
+                                         @RequestParam(required = false) List<String> categories) {
+        return availabilityFeed.subscribe(resourceIds, categories);
+    }
+
+    // Hit and miss counters of the resource cache
+    @GetMapping("/resource/cache/stats")
+    public CacheStatsDto getCacheStats() {
+        return resourceCache.stats();
+    }
+
+    // Type-ahead for the catalog search box
+    @GetMapping("/resource/suggest")
+    public List<SuggestionDto> suggest(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return resourceService.suggest(prefix, limit);
+    }
+
+    // Counts per category, author and availability for an optional search keyword and filters
+    @GetMapping("/resource/facets")
+    public ResourceFacetsDto getFacets(@RequestParam(required = false) String keyword,
+                                       @RequestParam(required = false) String category,
+                                       @RequestParam(required = false) String author) {
+        return resourceService.getFacets(keyword, category, author);
     }
 
     // Get all resources by category
@@ -1,11 +1,15 @@
 package com.alphacodes.librarymanagementsystem.controller;
 
 import com.alphacodes.librarymanagementsystem.DTO.RatingDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingHistogramDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingSummaryDto;
 import com.alphacodes.librarymanagementsystem.service.ResourceRatingService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/resource")
 
@@ -27,4 +31,17 @@ public class ResourceRatingController {
     public float getResourceRating(@PathVariable Long resourceId) {
         return resourceRatingService.getResourceRating(resourceId);
     }
+
+    // Get the number of ratings per star for a resource
+    @GetMapping("/{resourceId}/rating/histogram")
+    public RatingHistogramDto getResourceRatingHistogram(@PathVariable Long resourceId) {
+        return resourceRatingService.getResourceRatingHistogram(resourceId);
+    }
+
+    // Get the average, count and the user's own rating for many resources at once, e.g. ?ids=1,2,3&userId=u1
+    @GetMapping("/ratings")
+    public List<RatingSummaryDto> getResourceRatings(@RequestParam List<Long> ids,
+                                                     @RequestParam(required = false) String userId) {
+        return resourceRatingService.getResourceRatings(ids, userId);
+    }
 }
@@ -7,14 +7,22 @@ import com.alphacodes.librarymanagementsystem.DTO.UserSaveResponse;
 import com.alphacodes.librarymanagementsystem.Model.Student;
 import com.alphacodes.librarymanagementsystem.Model.User;
 import com.alphacodes.librarymanagementsystem.OTPservice.OTPServiceImpl;
+import com.alphacodes.librarymanagementsystem.blob.BlobTransfer;
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
 import com.alphacodes.librarymanagementsystem.repository.StudentRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/user")
@@ -84,4 +92,38 @@ public class UserController {
 
         return ResponseEntity.ok(userProfileDto);
     }
+
+    @PutMapping("/{id}/profileImage")
+    public ResponseEntity<UserProfileDto> updateProfileImage(@PathVariable String id,
+                                                             @RequestParam MultipartFile profileImg) throws IOException {
+        UserProfileDto userProfileDto = userService.updateProfileImage(id, profileImg.getBytes());
+        if (userProfileDto == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(userProfileDto);
+    }
+
+    // size is thumbnail, medium or original
+    @GetMapping("/{id}/profileImage")
+    public void getProfileImage(@PathVariable String id, @RequestParam(defaultValue = "original") String size,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageRendition rendition;
+        try {
+            rendition = ImageRendition.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        try {
+            Optional<Path> file = userService.getProfileImageFile(id, rendition);
+            if (file.isPresent()) {
+                BlobTransfer.serve(file.get(), request, response);
+            } else {
+                // Image still stored in the user row
+                BlobTransfer.serve(userService.getProfileImage(id), request, response);
+            }
+        } catch (RuntimeException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
 }
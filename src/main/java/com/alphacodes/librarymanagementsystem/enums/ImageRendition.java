@@ -0,0 +1,36 @@
+package com.alphacodes.librarymanagementsystem.enums;
+
+import java.util.Locale;
+
+public enum ImageRendition {
+
+    // Twice the 64px list size, sharp on high density screens
+    THUMBNAIL(128),
+    MEDIUM(640),
+    // 0 means the uploaded image as it is
+    ORIGINAL(0);
+
+    private final int maxDimension;
+
+    ImageRendition(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    // Name of the blob store variant holding this rendition, also the size parameter of the image endpoints
+    public String variant() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // IllegalArgumentException for a size that is not one of the variants
+    public static ImageRendition fromParam(String size) {
+        try {
+            return valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown image size " + size);
+        }
+    }
+}
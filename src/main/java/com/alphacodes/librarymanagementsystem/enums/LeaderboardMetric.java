@@ -0,0 +1,7 @@
+package com.alphacodes.librarymanagementsystem.enums;
+
+public enum LeaderboardMetric {
+
+    RATED,
+    BORROWED
+}
@@ -0,0 +1,19 @@
+package com.alphacodes.librarymanagementsystem.enums;
+
+public enum LeaderboardWindow {
+
+    WEEK(7),
+    MONTH(30),
+    // 0 days means no limit
+    ALL(0);
+
+    private final int days;
+
+    LeaderboardWindow(int days) {
+        this.days = days;
+    }
+
+    public int getDays() {
+        return days;
+    }
+}
@@ -0,0 +1,12 @@
+package com.alphacodes.librarymanagementsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published when an article and its comments and ratings are deleted.
+// In-memory views of the articles drop it once the deleting transaction has committed.
+@Data
+@AllArgsConstructor
+public class ArticleDeletedEvent {
+    private int articleId;
+}
@@ -0,0 +1,24 @@
+package com.alphacodes.librarymanagementsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published after the availability counter of a resource moved by `delta` copies.
+// Listeners that keep in-memory views of the catalog use it to stay in step.
+@Data
+@AllArgsConstructor
+public class ResourceAvailabilityChangedEvent {
+
+    public enum Cause {
+        ISSUE,
+        RETURN,
+        RESERVE,
+        RESERVATION_EXPIRED,
+        // A librarian edited the counter, in-memory indexes were already refreshed by the writer
+        UPDATE
+    }
+
+    private Long resourceId;
+    private int delta;
+    private Cause cause;
+}
@@ -0,0 +1,12 @@
+package com.alphacodes.librarymanagementsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published after the comment count of a resource moved by `delta`, cached copies of the resource are stale
+@Data
+@AllArgsConstructor
+public class ResourceCommentedEvent {
+    private Long resourceId;
+    private int delta;
+}
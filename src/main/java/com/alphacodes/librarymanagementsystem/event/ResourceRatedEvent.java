@@ -0,0 +1,17 @@
+package com.alphacodes.librarymanagementsystem.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Published when a resource rating is written. For an edit previousRating is the replaced value and
+// previousRatingDay the day it was given, null when the rating was written before days were tracked.
+@Data
+@AllArgsConstructor
+public class ResourceRatedEvent {
+    private Long resourceId;
+    private float rating;
+    private Float previousRating;
+    private LocalDate previousRatingDay;
+}
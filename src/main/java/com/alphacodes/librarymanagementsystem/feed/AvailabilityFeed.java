@@ -0,0 +1,280 @@
+package com.alphacodes.librarymanagementsystem.feed;
+
+import com.alphacodes.librarymanagementsystem.DTO.AvailabilityChangeDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes availability changes to subscribers over server-sent events.
+// Changes are only recorded as dirty resource ids when they commit; a flush every flush-millis
+// reads the current counters of the dirty ids in one query, so a burst of issues and returns on
+// the same resource reaches each subscriber as a single update.
+// Idle subscribers hold no thread, only an entry in the lookup maps below.
+// Sends happen on the feed's own sender threads, never on the scheduler thread: events are queued
+// per subscriber and one sender drains a subscriber's queue at a time, in order. A subscriber whose
+// queue overflows, or whose send has been blocked for longer than send-timeout-millis, is dropped.
+// The blocked write itself is bounded by server.tomcat.connection-timeout, which is also the socket
+// write timeout: the send then fails, and its sender thread completes the stream and moves on.
+@Component
+public class AvailabilityFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityFeed.class);
+
+    private final ResourceRepository resourceRepository;
+    private final long timeoutMillis;
+    private final int maxPending;
+    private final long sendTimeoutMillis;
+    private final ThreadPoolExecutor senders;
+
+    // Subscribers by the resource ids and categories they follow, and those following everything
+    private final Map<Long, Set<Subscriber>> byResource = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> byCategory = new ConcurrentHashMap<>();
+    private final Set<Subscriber> everything = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public AvailabilityFeed(ResourceRepository resourceRepository,
+                            @Value("${library.availability-feed.timeout-millis:1800000}") long timeoutMillis,
+                            @Value("${library.availability-feed.sender-threads:4}") int senderThreads,
+                            @Value("${library.availability-feed.max-pending:16}") int maxPending,
+                            @Value("${library.availability-feed.send-timeout-millis:10000}") long sendTimeoutMillis) {
+        this.resourceRepository = resourceRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.maxPending = maxPending;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        AtomicInteger count = new AtomicInteger();
+        // A subscriber is queued at most once at a time, so the queue is bounded by the subscriber count
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "availability-feed-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Follow the given resources and categories, with neither every change is sent
+    public SseEmitter subscribe(Collection<Long> resourceIds, Collection<String> categories) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter,
+                resourceIds == null ? Set.of() : Set.copyOf(resourceIds),
+                categories == null ? Set.of() : Set.copyOf(categories));
+
+        // Closed by the container, the senders must not complete it again
+        emitter.onCompletion(() -> closedByContainer(subscriber));
+        emitter.onTimeout(() -> closedByContainer(subscriber));
+        emitter.onError(error -> closedByContainer(subscriber));
+
+        subscribers.add(subscriber);
+        if (subscriber.resourceIds.isEmpty() && subscriber.categories.isEmpty()) {
+            everything.add(subscriber);
+        }
+        for (Long resourceId : subscriber.resourceIds) {
+            byResource.computeIfAbsent(resourceId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        for (String category : subscriber.categories) {
+            byCategory.computeIfAbsent(category, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(ResourceAvailabilityChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            dirty.add(event.getResourceId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.availability-feed.flush-millis:250}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> resourceIds = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long resourceId = it.next();
+            it.remove();
+            // Without category or catch-all subscribers only ids someone follows need loading
+            if (!everything.isEmpty() || !byCategory.isEmpty() || byResource.containsKey(resourceId)) {
+                resourceIds.add(resourceId);
+            }
+        }
+        if (resourceIds.isEmpty()) {
+            return;
+        }
+
+        // Group the changes per subscriber so each gets one message per flush
+        Map<Subscriber, List<AvailabilityChangeDto>> batches = new HashMap<>();
+        for (ResourceDto resource : resourceRepository.findDtosByIdIn(resourceIds)) {
+            AvailabilityChangeDto change = new AvailabilityChangeDto(
+                    resource.getResourceId(), resource.getCategory(), resource.getAvailability());
+            Set<Subscriber> recipients = new HashSet<>(everything);
+            recipients.addAll(byResource.getOrDefault(resource.getResourceId(), Set.of()));
+            if (resource.getCategory() != null) {
+                recipients.addAll(byCategory.getOrDefault(resource.getCategory(), Set.of()));
+            }
+            for (Subscriber subscriber : recipients) {
+                batches.computeIfAbsent(subscriber, key -> new ArrayList<>()).add(change);
+            }
+        }
+
+        for (Map.Entry<Subscriber, List<AvailabilityChangeDto>> batch : batches.entrySet()) {
+            enqueue(batch.getKey(), SseEmitter.event().name("availability").data(batch.getValue()));
+        }
+    }
+
+    // Comment line that keeps proxies from closing idle streams and finds clients that went away.
+    // Also drops subscribers whose current send has been blocked for too long
+    @Scheduled(fixedDelayString = "${library.availability-feed.heartbeat-millis:30000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long sendStarted = subscriber.sendStarted;
+            if (sendStarted != 0 && now - sendStarted > sendTimeoutMillis) {
+                drop(subscriber, "send blocked for " + (now - sendStarted) + " ms");
+            } else {
+                enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.queued.incrementAndGet() > maxPending) {
+            drop(subscriber, "more than " + maxPending + " events pending");
+            return;
+        }
+        subscriber.pending.add(event);
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the stream is closed with the container
+            subscriber.draining.set(false);
+            unsubscribe(subscriber);
+        }
+    }
+
+    // Runs on a sender thread, the only place an emitter is written to or completed
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (subscribers.contains(subscriber) && (event = subscriber.pending.poll()) != null) {
+                subscriber.queued.decrementAndGet();
+                subscriber.sendStarted = System.currentTimeMillis();
+                subscriber.emitter.send(event);
+                subscriber.sendStarted = 0;
+            }
+            if (!subscribers.contains(subscriber) && subscriber.closed.compareAndSet(false, true)) {
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping availability subscriber: {}", e.getMessage());
+            unsubscribe(subscriber);
+            if (subscriber.closed.compareAndSet(false, true)) {
+                subscriber.emitter.completeWithError(e);
+            }
+        } finally {
+            subscriber.sendStarted = 0;
+            subscriber.draining.set(false);
+        }
+        // An event queued after the last poll but before draining was cleared would be stranded
+        if (!subscriber.pending.isEmpty() && subscribers.contains(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    // Unsubscribes at once; the stream is completed by a sender thread. A blocked send holds the
+    // emitter's lock, so completing it here would block too; it fails on the write timeout instead
+    private void drop(Subscriber subscriber, String reason) {
+        log.debug("Dropping availability subscriber: {}", reason);
+        unsubscribe(subscriber);
+        subscriber.pending.clear();
+        schedule(subscriber);
+    }
+
+    private void closedByContainer(Subscriber subscriber) {
+        subscriber.closed.set(true);
+        unsubscribe(subscriber);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        everything.remove(subscriber);
+        for (Long resourceId : subscriber.resourceIds) {
+            byResource.computeIfPresent(resourceId, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        for (String category : subscriber.categories) {
+            byCategory.computeIfPresent(category, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    // Identity equality, two subscribers with the same filters are still different streams
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> resourceIds;
+        private final Set<String> categories;
+
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Start of the send in progress, 0 when none is
+        private volatile long sendStarted;
+
+        private Subscriber(SseEmitter emitter, Set<Long> resourceIds, Set<String> categories) {
+            this.emitter = emitter;
+            this.resourceIds = resourceIds;
+            this.categories = categories;
+        }
+    }
+}
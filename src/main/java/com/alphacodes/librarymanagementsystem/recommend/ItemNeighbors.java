@@ -0,0 +1,98 @@
+package com.alphacodes.librarymanagementsystem.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Immutable top-k neighbor table: item ids sorted for binary search, and per item a slice
+// of neighbor ids and scores, best first. Primitive arrays only, a few bytes per neighbor.
+public final class ItemNeighbors {
+
+    public static final ItemNeighbors EMPTY = new ItemNeighbors(new long[0], new int[1], new long[0], new float[0]);
+
+    private final long[] itemIds;
+    // Neighbors of itemIds[i] are at [offsets[i], offsets[i + 1])
+    private final int[] offsets;
+    private final long[] neighborIds;
+    private final float[] scores;
+
+    public ItemNeighbors(long[] itemIds, int[] offsets, long[] neighborIds, float[] scores) {
+        this.itemIds = itemIds;
+        this.offsets = offsets;
+        this.neighborIds = neighborIds;
+        this.scores = scores;
+    }
+
+    public List<Long> neighbors(long itemId, int limit) {
+        int index = Arrays.binarySearch(itemIds, itemId);
+        if (index < 0) {
+            return List.of();
+        }
+        int end = Math.min(offsets[index + 1], offsets[index] + Math.max(0, limit));
+        List<Long> neighbors = new ArrayList<>(end - offsets[index]);
+        for (int i = offsets[index]; i < end; i++) {
+            neighbors.add(neighborIds[i]);
+        }
+        return neighbors;
+    }
+
+    // Number of items that have neighbors
+    public int size() {
+        return itemIds.length;
+    }
+
+    public long itemId(int index) {
+        return itemIds[index];
+    }
+
+    public int neighborCount(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    public long neighborId(int index, int rank) {
+        return neighborIds[offsets[index] + rank];
+    }
+
+    public float score(int index, int rank) {
+        return scores[offsets[index] + rank];
+    }
+
+    // Collects items in ascending id order, as they are read back from storage
+    public static final class Builder {
+        private long[] itemIds = new long[1024];
+        private int[] offsets = new int[1025];
+        private long[] neighborIds = new long[8192];
+        private float[] scores = new float[8192];
+        private int items;
+        private int neighbors;
+
+        public Builder add(long itemId, long[] ids, float[] itemScores, int count) {
+            if (items > 0 && itemId <= itemIds[items - 1]) {
+                throw new IllegalArgumentException("Items must be added in ascending id order");
+            }
+            if (count == 0) {
+                return this;
+            }
+            if (items == itemIds.length) {
+                itemIds = Arrays.copyOf(itemIds, items * 2);
+                offsets = Arrays.copyOf(offsets, items * 2 + 1);
+            }
+            if (neighbors + count > neighborIds.length) {
+                int capacity = Math.max(neighborIds.length * 2, neighbors + count);
+                neighborIds = Arrays.copyOf(neighborIds, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            System.arraycopy(ids, 0, neighborIds, neighbors, count);
+            System.arraycopy(itemScores, 0, scores, neighbors, count);
+            itemIds[items] = itemId;
+            neighbors += count;
+            offsets[++items] = neighbors;
+            return this;
+        }
+
+        public ItemNeighbors build() {
+            return new ItemNeighbors(Arrays.copyOf(itemIds, items), Arrays.copyOf(offsets, items + 1),
+                    Arrays.copyOf(neighborIds, neighbors), Arrays.copyOf(scores, neighbors));
+        }
+    }
+}
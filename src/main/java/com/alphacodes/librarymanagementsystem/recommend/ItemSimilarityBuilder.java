@@ -0,0 +1,341 @@
+package com.alphacodes.librarymanagementsystem.recommend;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+// Offline item-item similarity over sparse user-item vectors.
+// Interactions are packed into compressed sparse rows by user and by item, then every item is
+// scored against the items its users also interacted with (cosine similarity, shrunk towards 0
+// when few users are shared) and the best k are kept. Items are split across a fork/join pool;
+// each worker thread owns dense scratch arrays, so the hot loop touches only primitive arrays.
+public class ItemSimilarityBuilder {
+
+    // Items scored by one leaf task
+    private static final int ITEMS_PER_TASK = 128;
+
+    private final int k;
+    // Users with more items than this are left out of the co-occurrence counts, their cost is
+    // quadratic in their history and they say little about any pair
+    private final int maxItemsPerUser;
+    private final float shrinkage;
+    private final int parallelism;
+
+    public ItemSimilarityBuilder(int k, int maxItemsPerUser, float shrinkage, int parallelism) {
+        this.k = k;
+        this.maxItemsPerUser = maxItemsPerUser;
+        this.shrinkage = shrinkage;
+        this.parallelism = parallelism;
+    }
+
+    public ItemNeighbors build(Interactions interactions) {
+        int size = interactions.size;
+        if (size == 0) {
+            return ItemNeighbors.EMPTY;
+        }
+
+        // Dense item indexes, in ascending id order
+        long[] itemIds = Arrays.copyOf(interactions.items, size);
+        Arrays.sort(itemIds);
+        int itemCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || itemIds[i] != itemIds[i - 1]) {
+                itemIds[itemCount++] = itemIds[i];
+            }
+        }
+        itemIds = Arrays.copyOf(itemIds, itemCount);
+
+        // Rows by user. Each entry packs the item index above the weight bits, so sorting a row
+        // groups repeated items with the largest weight last (weights are positive)
+        int userCount = 0;
+        for (int i = 0; i < size; i++) {
+            userCount = Math.max(userCount, interactions.users[i] + 1);
+        }
+        int[] userOffsets = new int[userCount + 1];
+        for (int i = 0; i < size; i++) {
+            userOffsets[interactions.users[i] + 1]++;
+        }
+        for (int u = 0; u < userCount; u++) {
+            userOffsets[u + 1] += userOffsets[u];
+        }
+        long[] packed = new long[size];
+        int[] fill = Arrays.copyOf(userOffsets, userCount);
+        for (int i = 0; i < size; i++) {
+            int item = Arrays.binarySearch(itemIds, interactions.items[i]);
+            packed[fill[interactions.users[i]]++] =
+                    ((long) item << 32) | (Float.floatToIntBits(interactions.weights[i]) & 0xFFFFFFFFL);
+        }
+
+        // Sort and dedupe every row in place, dropping heavy users
+        int[] userItems = new int[size];
+        float[] userWeights = new float[size];
+        int[] rows = new int[userCount + 1];
+        int written = 0;
+        for (int u = 0; u < userCount; u++) {
+            int from = userOffsets[u];
+            int to = userOffsets[u + 1];
+            rows[u] = written;
+            Arrays.sort(packed, from, to);
+            int start = written;
+            for (int i = from; i < to; i++) {
+                int item = (int) (packed[i] >>> 32);
+                float weight = Float.intBitsToFloat((int) packed[i]);
+                if (written > start && userItems[written - 1] == item) {
+                    userWeights[written - 1] = weight;
+                } else {
+                    userItems[written] = item;
+                    userWeights[written++] = weight;
+                }
+            }
+            if (written - start > maxItemsPerUser) {
+                written = start;
+            }
+        }
+        rows[userCount] = written;
+
+        // Columns by item, and the norm of every item vector
+        int[] itemOffsets = new int[itemCount + 1];
+        for (int i = 0; i < written; i++) {
+            itemOffsets[userItems[i] + 1]++;
+        }
+        for (int i = 0; i < itemCount; i++) {
+            itemOffsets[i + 1] += itemOffsets[i];
+        }
+        int[] itemUsers = new int[written];
+        float[] itemWeights = new float[written];
+        float[] norms = new float[itemCount];
+        int[] itemFill = Arrays.copyOf(itemOffsets, itemCount);
+        for (int u = 0; u < userCount; u++) {
+            for (int i = rows[u]; i < rows[u + 1]; i++) {
+                int slot = itemFill[userItems[i]]++;
+                itemUsers[slot] = u;
+                itemWeights[slot] = userWeights[i];
+                norms[userItems[i]] += userWeights[i] * userWeights[i];
+            }
+        }
+        for (int i = 0; i < itemCount; i++) {
+            norms[i] = (float) Math.sqrt(norms[i]);
+        }
+
+        Graph graph = new Graph(itemCount, rows, userItems, userWeights, itemOffsets, itemUsers, itemWeights, norms);
+        int[] neighbors = new int[itemCount * k];
+        float[] scores = new float[itemCount * k];
+        int[] counts = new int[itemCount];
+
+        // Workers allocate their scratch arrays once and reuse them for every leaf they run
+        ForkJoinPool pool = new ForkJoinPool(parallelism, Worker::new, null, false);
+        try {
+            pool.invoke(new ScoreItems(graph, 0, itemCount, neighbors, scores, counts));
+        } finally {
+            pool.shutdown();
+        }
+
+        ItemNeighbors.Builder builder = new ItemNeighbors.Builder();
+        long[] ids = new long[k];
+        float[] itemScores = new float[k];
+        for (int i = 0; i < itemCount; i++) {
+            for (int r = 0; r < counts[i]; r++) {
+                ids[r] = itemIds[neighbors[i * k + r]];
+                itemScores[r] = scores[i * k + r];
+            }
+            builder.add(itemIds[i], ids, itemScores, counts[i]);
+        }
+        return builder.build();
+    }
+
+    private record Graph(int itemCount, int[] rows, int[] userItems, float[] userWeights,
+                         int[] itemOffsets, int[] itemUsers, float[] itemWeights, float[] norms) {
+    }
+
+    // Per item dense accumulators plus the top-k heap. dots and shared are zeroed again as each
+    // item's candidates are scored, so the arrays can serve the next item and the next leaf
+    private static final class Scratch {
+        private final float[] dots;
+        private final int[] shared;
+        private final int[] touched;
+        private final int[] heapItems;
+        private final float[] heapScores;
+
+        Scratch(int itemCount, int k) {
+            dots = new float[itemCount];
+            shared = new int[itemCount];
+            touched = new int[itemCount];
+            heapItems = new int[k];
+            heapScores = new float[k];
+        }
+    }
+
+    private static final class Worker extends ForkJoinWorkerThread {
+        private Scratch scratch;
+
+        Worker(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    private final class ScoreItems extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Graph graph;
+        private final int from;
+        private final int to;
+        private final int[] neighbors;
+        private final float[] scores;
+        private final int[] counts;
+
+        ScoreItems(Graph graph, int from, int to, int[] neighbors, float[] scores, int[] counts) {
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+            this.neighbors = neighbors;
+            this.scores = scores;
+            this.counts = counts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ITEMS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ScoreItems(graph, from, middle, neighbors, scores, counts),
+                        new ScoreItems(graph, middle, to, neighbors, scores, counts));
+                return;
+            }
+
+            Scratch scratch = scratch();
+            float[] dots = scratch.dots;
+            int[] shared = scratch.shared;
+            int[] touched = scratch.touched;
+            int[] heapItems = scratch.heapItems;
+            float[] heapScores = scratch.heapScores;
+
+            for (int item = from; item < to; item++) {
+                int touchedCount = 0;
+                for (int c = graph.itemOffsets()[item]; c < graph.itemOffsets()[item + 1]; c++) {
+                    int user = graph.itemUsers()[c];
+                    float weight = graph.itemWeights()[c];
+                    for (int r = graph.rows()[user]; r < graph.rows()[user + 1]; r++) {
+                        int other = graph.userItems()[r];
+                        if (other == item) {
+                            continue;
+                        }
+                        if (shared[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                        dots[other] += weight * graph.userWeights()[r];
+                    }
+                }
+
+                // Bounded min-heap of the best k, the root is the weakest kept neighbor
+                int heapSize = 0;
+                float norm = graph.norms()[item];
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    float score = dots[other] / (norm * graph.norms()[other])
+                            * (shared[other] / (shared[other] + shrinkage));
+                    dots[other] = 0;
+                    shared[other] = 0;
+                    if (heapSize < k) {
+                        heapItems[heapSize] = other;
+                        heapScores[heapSize] = score;
+                        siftUp(heapItems, heapScores, heapSize++);
+                    } else if (score > heapScores[0]) {
+                        heapItems[0] = other;
+                        heapScores[0] = score;
+                        siftDown(heapItems, heapScores, 0, heapSize);
+                    }
+                }
+
+                // Pop weakest first into the slots from the back, leaving them best first
+                counts[item] = heapSize;
+                for (int slot = heapSize - 1; slot >= 0; slot--) {
+                    neighbors[item * k + slot] = heapItems[0];
+                    scores[item * k + slot] = heapScores[0];
+                    heapItems[0] = heapItems[slot];
+                    heapScores[0] = heapScores[slot];
+                    siftDown(heapItems, heapScores, 0, slot);
+                }
+            }
+        }
+
+        // A leaf never forks, so the worker's arrays are not shared with another leaf while in use.
+        // The thread that called invoke can also run leaves, it gets arrays of its own
+        private Scratch scratch() {
+            if (Thread.currentThread() instanceof Worker worker) {
+                if (worker.scratch == null) {
+                    worker.scratch = new Scratch(graph.itemCount(), k);
+                }
+                return worker.scratch;
+            }
+            return new Scratch(graph.itemCount(), k);
+        }
+    }
+
+    private static void siftUp(int[] items, float[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (scores[parent] <= scores[index]) {
+                return;
+            }
+            swap(items, scores, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] items, float[] scores, int index, int size) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(items, scores, smallest, index);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] items, float[] scores, int a, int b) {
+        int item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    // Growable (user, item, weight) triples. Users are dense indexes assigned by the caller,
+    // the same pair may appear more than once and keeps its largest weight
+    public static final class Interactions {
+        private int[] users = new int[1024];
+        private long[] items = new long[1024];
+        private float[] weights = new float[1024];
+        private int size;
+
+        public void add(int user, long item, float weight) {
+            if (weight <= 0) {
+                return;
+            }
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+                items = Arrays.copyOf(items, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            users[size] = user;
+            items[size] = item;
+            weights[size++] = weight;
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -1,14 +1,44 @@
 package com.alphacodes.librarymanagementsystem.repository;
 
+import com.alphacodes.librarymanagementsystem.DTO.CommentViewDto;
 import com.alphacodes.librarymanagementsystem.Model.Article;
 import com.alphacodes.librarymanagementsystem.Model.ArticleComment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ArticleCommentRepository extends JpaRepository<ArticleComment, Integer> {
 
     List<ArticleComment> findByArticle(Article article);
+
+    // Keyset page of an article's comments, oldest first. The commenter is joined for its id and name
+    // only, so the User row and its images are never loaded. The foreign key index on the article
+    // column ends in the comment id, so it serves both the filter and the order
+    @Query("SELECT new com.alphacodes.librarymanagementsystem.DTO.CommentViewDto(" +
+            "CAST(c.articleCommentId AS Long), c.comment, u.userID, u.firstName, u.lastName) " +
+            "FROM ArticleComment c JOIN c.commenter u " +
+            "WHERE c.article.articleId = :articleId AND c.articleCommentId > :afterId " +
+            "ORDER BY c.articleCommentId ASC")
+    List<CommentViewDto> findPageAfter(@Param("articleId") int articleId, @Param("afterId") int afterId,
+                                       Pageable pageable);
+
+    @Query("SELECT c.article.articleId FROM ArticleComment c WHERE c.articleCommentId = :articleCommentId")
+    Optional<Integer> findArticleIdById(@Param("articleCommentId") int articleCommentId);
+
+    // Deletes the row without loading the comment, its article and its commenter first
+    @Modifying
+    @Query("DELETE FROM ArticleComment c WHERE c.articleCommentId = :articleCommentId")
+    int deleteCommentRow(@Param("articleCommentId") int articleCommentId);
+
+    // All comments of an article in one statement, returns the number deleted
+    @Modifying
+    @Query("DELETE FROM ArticleComment c WHERE c.article.articleId = :articleId")
+    int deleteByArticleId(@Param("articleId") int articleId);
 }
@@ -4,13 +4,50 @@ import com.alphacodes.librarymanagementsystem.Model.Article;
 import com.alphacodes.librarymanagementsystem.Model.ArticleRating;
 import com.alphacodes.librarymanagementsystem.Model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ArticleRatingRepository extends JpaRepository<ArticleRating, Integer> {
     List<ArticleRating> findByArticle(Article article);
+
+    // All ratings of an article in one statement, returns the number deleted
+    @Modifying
+    @Query("DELETE FROM ArticleRating r WHERE r.article.articleId = :articleId")
+    int deleteByArticleId(@Param("articleId") int articleId);
     Optional<ArticleRating> findByArticleAndCommenter(Article article, User commenter);
+
+    // Current rating of the member for the article, read under the summary row lock (see
+    // ArticleRatingSummaryRepository.lockSummary) and locked itself until the transaction ends
+    @Query(value = "SELECT rating FROM article_rating WHERE articles = :articleId AND member = :member " +
+            "ORDER BY article_rating_id DESC LIMIT 1 FOR UPDATE", nativeQuery = true)
+    Optional<Float> findRatingForUpdate(@Param("articleId") int articleId, @Param("member") String member);
+
+    // Single statement write of a new rating; the unique (articles, member) index backs up the summary lock
+    @Modifying
+    @Query(value = "INSERT INTO article_rating (articles, member, rating) VALUES (:articleId, :member, :rating) " +
+            "ON DUPLICATE KEY UPDATE rating = VALUES(rating)", nativeQuery = true)
+    int upsertRating(@Param("articleId") int articleId, @Param("member") String member, @Param("rating") float rating);
+
+    @Modifying
+    @Query(value = "UPDATE article_rating SET rating = :rating WHERE articles = :articleId AND member = :member",
+            nativeQuery = true)
+    int updateRating(@Param("articleId") int articleId, @Param("member") String member, @Param("rating") float rating);
+
+    // Article id and rating of every listed article the user rated
+    @Query("SELECT r.article.articleId, r.rating FROM ArticleRating r " +
+            "WHERE r.commenter.userID = :userId AND r.article.articleId IN :articleIds")
+    List<Object[]> findUserRatings(@Param("userId") String userId, @Param("articleIds") Collection<Integer> articleIds);
+
+    // Article id, user id and rating for every pair of the listed articles and users that has a rating
+    @Query("SELECT r.article.articleId, r.commenter.userID, r.rating FROM ArticleRating r " +
+            "WHERE r.article.articleId IN :articleIds AND r.commenter.userID IN :userIds")
+    List<Object[]> findRatings(@Param("articleIds") Collection<Integer> articleIds,
+                               @Param("userIds") Collection<String> userIds);
 }
@@ -0,0 +1,69 @@
+package com.alphacodes.librarymanagementsystem.repository;
+
+import com.alphacodes.librarymanagementsystem.Model.ArticleRatingSummary;
+import com.alphacodes.librarymanagementsystem.util.RatingStars;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArticleRatingSummaryRepository extends JpaRepository<ArticleRatingSummary, Integer> {
+
+    // Creates the summary row if it is missing and holds an exclusive lock on it until the transaction
+    // ends, see ResourceRatingSummaryRepository.lockSummary
+    @Modifying
+    @Query(value = "INSERT INTO article_rating_summary (article_id, rating_sum, rating_count, " +
+            "stars1, stars2, stars3, stars4, stars5) VALUES (:articleId, 0, 0, 0, 0, 0, 0, 0) " +
+            "ON DUPLICATE KEY UPDATE article_id = article_id", nativeQuery = true)
+    int lockSummary(@Param("articleId") int articleId);
+
+    // Creates the row on the first rating and adds to it afterwards, in one statement so
+    // concurrent raters cannot lose each other's update. An edited rating passes the difference
+    // to the old value as sumDelta, 0 as countDelta and -1 on the star it left
+    @Modifying
+    @Query(value = "INSERT INTO article_rating_summary (article_id, rating_sum, rating_count, " +
+            "stars1, stars2, stars3, stars4, stars5) " +
+            "VALUES (:articleId, :sumDelta, :countDelta, :stars1, :stars2, :stars3, :stars4, :stars5) " +
+            "ON DUPLICATE KEY UPDATE rating_sum = rating_sum + VALUES(rating_sum), " +
+            "rating_count = rating_count + VALUES(rating_count), " +
+            "stars1 = stars1 + VALUES(stars1), stars2 = stars2 + VALUES(stars2), stars3 = stars3 + VALUES(stars3), " +
+            "stars4 = stars4 + VALUES(stars4), stars5 = stars5 + VALUES(stars5)", nativeQuery = true)
+    int addRating(@Param("articleId") int articleId, @Param("sumDelta") double sumDelta,
+                  @Param("countDelta") long countDelta,
+                  @Param("stars1") long stars1, @Param("stars2") long stars2, @Param("stars3") long stars3,
+                  @Param("stars4") long stars4, @Param("stars5") long stars5);
+
+    default int addRating(int articleId, Float previous, float rating) {
+        long[] stars = RatingStars.deltas(previous, rating);
+        return addRating(articleId, previous == null ? rating : rating - previous, previous == null ? 1 : 0,
+                stars[0], stars[1], stars[2], stars[3], stars[4]);
+    }
+
+    // Set based rebuild of the summaries of the ids in [from, to] from the raw ratings, run with
+    // deleteRange in one transaction so ids whose ratings are all gone end up without a row
+    @Modifying
+    @Query(value = "INSERT INTO article_rating_summary (article_id, rating_sum, rating_count, " +
+            "stars1, stars2, stars3, stars4, stars5) " +
+            "SELECT articles, SUM(rating), COUNT(*), " +
+            "SUM(LEAST(5, GREATEST(1, FLOOR(rating + 0.5))) = 1), SUM(LEAST(5, GREATEST(1, FLOOR(rating + 0.5))) = 2), " +
+            "SUM(LEAST(5, GREATEST(1, FLOOR(rating + 0.5))) = 3), SUM(LEAST(5, GREATEST(1, FLOOR(rating + 0.5))) = 4), " +
+            "SUM(LEAST(5, GREATEST(1, FLOOR(rating + 0.5))) = 5) " +
+            "FROM article_rating WHERE articles BETWEEN :from AND :to GROUP BY articles", nativeQuery = true)
+    int rebuildRange(@Param("from") long from, @Param("to") long to);
+
+    @Modifying
+    @Query(value = "DELETE FROM article_rating_summary WHERE article_id BETWEEN :from AND :to", nativeQuery = true)
+    int deleteRange(@Param("from") long from, @Param("to") long to);
+
+    // Highest id with ratings or a summary, the upper bound of a rebuild
+    @Query(value = "SELECT GREATEST(COALESCE((SELECT MAX(articles) FROM article_rating), 0), " +
+            "COALESCE((SELECT MAX(article_id) FROM article_rating_summary), 0))", nativeQuery = true)
+    long findMaxId();
+
+    // Rows whose star counters do not add up, e.g. written before the counters existed
+    @Query(value = "SELECT COUNT(*) FROM article_rating_summary " +
+            "WHERE rating_count <> stars1 + stars2 + stars3 + stars4 + stars5", nativeQuery = true)
+    long countInconsistent();
+}
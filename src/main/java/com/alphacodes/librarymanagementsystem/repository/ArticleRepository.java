@@ -1,15 +1,74 @@
 package com.alphacodes.librarymanagementsystem.repository;
 
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedItemDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleIndexDto;
 import com.alphacodes.librarymanagementsystem.Model.Article;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ArticleRepository extends JpaRepository<Article, Integer> {
     List<Article> findByAuthor_UserID(String userId);
+
+    // Feed pages, newest first with the id breaking ties so the order is stable.
+    // Projects only small columns: the image is tested for null and the body cut to an excerpt
+    String FEED_SELECT = "SELECT new com.alphacodes.librarymanagementsystem.DTO.ArticleFeedItemDto(" +
+            "a.articleId, a.title, SUBSTRING(a.body, 1, 200), u.userID, u.firstName, u.lastName, a.dateCreated, " +
+            "CASE WHEN a.articleImgRef IS NULL AND a.articleImg IS NULL THEN false ELSE true END, a.commentCount) " +
+            "FROM Article a JOIN a.author u ";
+
+    @Query(FEED_SELECT + "ORDER BY a.dateCreated DESC, a.articleId DESC")
+    List<ArticleFeedItemDto> findFeedFirstPage(Pageable pageable);
+
+    @Query(FEED_SELECT + "WHERE a.dateCreated < :beforeDate " +
+            "OR (a.dateCreated = :beforeDate AND a.articleId < :beforeId) " +
+            "ORDER BY a.dateCreated DESC, a.articleId DESC")
+    List<ArticleFeedItemDto> findFeedPageBefore(@Param("beforeDate") Date beforeDate,
+                                                @Param("beforeId") int beforeId, Pageable pageable);
+
+    @Query(FEED_SELECT + "WHERE a.articleId IN :articleIds")
+    List<ArticleFeedItemDto> findFeedItemsByIdIn(@Param("articleIds") Collection<Integer> articleIds);
+
+    // Keyset page of the articles for the search index, ordered by id
+    @Query("SELECT new com.alphacodes.librarymanagementsystem.DTO.ArticleIndexDto(" +
+            "a.articleId, a.title, a.body, a.author.userID, a.dateCreated) " +
+            "FROM Article a WHERE a.articleId > :afterId ORDER BY a.articleId ASC")
+    List<ArticleIndexDto> findIndexPageAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query("SELECT a.articleImg FROM Article a WHERE a.articleId = :articleId")
+    byte[] findImageById(@Param("articleId") int articleId);
+
+    @Query("SELECT a.author.userID FROM Article a WHERE a.articleId = :articleId")
+    Optional<String> findAuthorIdById(@Param("articleId") int articleId);
+
+    // Deletes the row only, comments and ratings must be gone already
+    @Modifying
+    @Query("DELETE FROM Article a WHERE a.articleId = :articleId")
+    int deleteArticleRow(@Param("articleId") int articleId);
+
+    // Comment counter, changed in the transaction that adds or deletes the comment
+    @Modifying
+    @Query(value = "UPDATE articles SET comment_count = GREATEST(comment_count + :delta, 0) WHERE article_id = :articleId",
+            nativeQuery = true)
+    int addCommentCount(@Param("articleId") int articleId, @Param("delta") int delta);
+
+    @Query("SELECT a.articleImgRef FROM Article a WHERE a.articleId = :articleId")
+    String findImageRefById(@Param("articleId") int articleId);
+
+    // Ids of the articles that exist, holding a shared lock on them until the transaction ends so they cannot be deleted meanwhile
+    @Query(value = "SELECT article_id FROM articles WHERE article_id IN :articleIds FOR SHARE", nativeQuery = true)
+    List<Integer> findExistingIdsForShare(@Param("articleIds") Collection<Integer> articleIds);
+
+    // Exclusive lock on the article row until the transaction ends, empty when there is no such article
+    @Query(value = "SELECT article_id FROM articles WHERE article_id = :articleId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockById(@Param("articleId") int articleId);
 }
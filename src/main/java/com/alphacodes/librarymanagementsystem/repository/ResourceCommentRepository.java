@@ -1,8 +1,12 @@
 package com.alphacodes.librarymanagementsystem.repository;
 
+import com.alphacodes.librarymanagementsystem.DTO.CommentViewDto;
 import com.alphacodes.librarymanagementsystem.Model.Resource;
 import com.alphacodes.librarymanagementsystem.Model.ResourceComment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +15,12 @@ import java.util.List;
 public interface ResourceCommentRepository extends JpaRepository<ResourceComment, Long>{
 List<ResourceComment> findByBook(Resource book);
 
+    // Keyset page of a resource's comments, oldest first, with the commenter's id and name only
+    @Query("SELECT new com.alphacodes.librarymanagementsystem.DTO.CommentViewDto(" +
+            "c.resourceCommentId, c.comment, u.userID, u.firstName, u.lastName) " +
+            "FROM ResourceComment c JOIN c.member u " +
+            "WHERE c.book.resourceId = :resourceId AND c.resourceCommentId > :afterId " +
+            "ORDER BY c.resourceCommentId ASC")
+    List<CommentViewDto> findPageAfter(@Param("resourceId") Long resourceId, @Param("afterId") Long afterId,
+                                       Pageable pageable);
 }
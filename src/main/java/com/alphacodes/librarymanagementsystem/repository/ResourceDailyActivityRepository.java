@@ -0,0 +1,33 @@
+package com.alphacodes.librarymanagementsystem.repository;
+
+import com.alphacodes.librarymanagementsystem.Model.ResourceDailyActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResourceDailyActivityRepository extends JpaRepository<ResourceDailyActivity, Long> {
+
+    // Adds to the row of the resource for the day, creating it on the first activity
+    @Modifying
+    @Query(value = "INSERT INTO resource_daily_activity (resource_id, activity_date, borrows, rating_sum, rating_count) " +
+            "VALUES (:resourceId, :activityDate, :borrows, :ratingSum, :ratingCount) " +
+            "ON DUPLICATE KEY UPDATE borrows = borrows + VALUES(borrows), " +
+            "rating_sum = rating_sum + VALUES(rating_sum), rating_count = rating_count + VALUES(rating_count)",
+            nativeQuery = true)
+    int addActivity(@Param("resourceId") Long resourceId, @Param("activityDate") LocalDate activityDate,
+                    @Param("borrows") long borrows, @Param("ratingSum") double ratingSum,
+                    @Param("ratingCount") long ratingCount);
+
+    List<ResourceDailyActivity> findByActivityDateGreaterThanEqual(LocalDate since);
+
+    // Resource id and total borrows, for every resource borrowed at least once
+    @Query("SELECT a.resourceId, SUM(a.borrows) FROM ResourceDailyActivity a " +
+            "GROUP BY a.resourceId HAVING SUM(a.borrows) > 0")
+    List<Object[]> sumBorrowsByResource();
+}
@@ -4,11 +4,46 @@ import com.alphacodes.librarymanagementsystem.Model.Resource;
 import com.alphacodes.librarymanagementsystem.Model.ResourceComment;
 import com.alphacodes.librarymanagementsystem.Model.ResourceRating;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ResourceRatingRepository extends JpaRepository<ResourceRating, Long>{
     List<ResourceRating> findByBook(Resource book);
+
+    // Current rating of the member for the book, read under the summary row lock (see
+    // ResourceRatingSummaryRepository.lockSummary) and locked itself until the transaction ends
+    @Query(value = "SELECT rating FROM resource_rating WHERE member = :member AND book = :book " +
+            "ORDER BY resource_rating_id DESC LIMIT 1 FOR UPDATE", nativeQuery = true)
+    Optional<Float> findRatingForUpdate(@Param("member") String member, @Param("book") Long book);
+
+    // Day the member's current rating was given, empty for ratings from before it was recorded
+    @Query("SELECT r.ratedOn FROM ResourceRating r WHERE r.member.userID = :member AND r.book.resourceId = :book")
+    Optional<LocalDate> findRatedOn(@Param("member") String member, @Param("book") Long book);
+
+    // Single statement write of a new rating; the unique (member, book) index backs up the summary lock
+    @Modifying
+    @Query(value = "INSERT INTO resource_rating (member, book, rating, rated_on) " +
+            "VALUES (:member, :book, :rating, :ratedOn) " +
+            "ON DUPLICATE KEY UPDATE rating = VALUES(rating), rated_on = VALUES(rated_on)", nativeQuery = true)
+    int upsertRating(@Param("member") String member, @Param("book") Long book, @Param("rating") float rating,
+                     @Param("ratedOn") LocalDate ratedOn);
+
+    @Modifying
+    @Query(value = "UPDATE resource_rating SET rating = :rating, rated_on = :ratedOn " +
+            "WHERE member = :member AND book = :book", nativeQuery = true)
+    int updateRating(@Param("member") String member, @Param("book") Long book, @Param("rating") float rating,
+                     @Param("ratedOn") LocalDate ratedOn);
+
+    // Resource id and rating of every listed resource the user rated
+    @Query("SELECT r.book.resourceId, r.rating FROM ResourceRating r " +
+            "WHERE r.member.userID = :userId AND r.book.resourceId IN :resourceIds")
+    List<Object[]> findUserRatings(@Param("userId") String userId, @Param("resourceIds") Collection<Long> resourceIds);
 }
@@ -0,0 +1,9 @@
+package com.alphacodes.librarymanagementsystem.repository;
+
+import com.alphacodes.librarymanagementsystem.Model.ResourceRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResourceRecommendationRepository extends JpaRepository<ResourceRecommendation, Long> {
+}
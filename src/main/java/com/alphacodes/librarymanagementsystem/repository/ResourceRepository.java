@@ -1,9 +1,15 @@
 package com.alphacodes.librarymanagementsystem.repository;
 
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
 import com.alphacodes.librarymanagementsystem.Model.Resource;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,5 +18,34 @@ public interface ResourceRepository extends JpaRepository<Resource, Long>{
     List<Resource> findByTitle(String title);
     List<Resource> findByAuthor(String author);
 
+    // Keyset page of the catalog, read straight into DTOs ordered by id
+    @Query("SELECT new com.alphacodes.librarymanagementsystem.DTO.ResourceDto(" +
+            "r.resourceId, r.title, r.author, r.availability, r.category, r.commentCount) " +
+            "FROM Resource r WHERE r.resourceId > :afterId ORDER BY r.resourceId ASC")
+    List<ResourceDto> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
 
+    @Query("SELECT new com.alphacodes.librarymanagementsystem.DTO.ResourceDto(" +
+            "r.resourceId, r.title, r.author, r.availability, r.category, r.commentCount) " +
+            "FROM Resource r WHERE r.resourceId IN :ids")
+    List<ResourceDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(r.resourceId), 0) FROM Resource r")
+    long findMaxResourceId();
+
+    // Inventory counter. Both statements are a single conditional update so concurrent
+    // checkouts cannot lose updates. They return the number of rows changed, 0 means refused.
+    @Modifying
+    @Query("UPDATE Resource r SET r.availability = r.availability - 1 " +
+            "WHERE r.resourceId = :resourceId AND r.availability > 0")
+    int decrementAvailability(@Param("resourceId") Long resourceId);
+
+    @Modifying
+    @Query("UPDATE Resource r SET r.availability = r.availability + 1 WHERE r.resourceId = :resourceId")
+    int incrementAvailability(@Param("resourceId") Long resourceId);
+
+    // Comment counter, changed in the transaction that adds or deletes the comment
+    @Modifying
+    @Query(value = "UPDATE resource SET comment_count = GREATEST(comment_count + :delta, 0) WHERE resource_id = :resourceId",
+            nativeQuery = true)
+    int addCommentCount(@Param("resourceId") Long resourceId, @Param("delta") int delta);
 }
@@ -2,10 +2,19 @@ package com.alphacodes.librarymanagementsystem.repository;
 
 import com.alphacodes.librarymanagementsystem.Model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     User findByEmailAddress(String userEmailAddress);
     User findByUserID(String userID);
+    boolean existsByUserID(String userID);
+
+    @Query("SELECT u.profileImg FROM User u WHERE u.userID = :userID")
+    byte[] findProfileImageByUserID(@Param("userID") String userID);
+
+    @Query("SELECT u.profileImgRef FROM User u WHERE u.userID = :userID")
+    String findProfileImageRefByUserID(@Param("userID") String userID);
 }
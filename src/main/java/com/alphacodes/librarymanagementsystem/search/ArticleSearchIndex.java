@@ -0,0 +1,105 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import com.alphacodes.librarymanagementsystem.event.ArticleDeletedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+// Full text index over article titles and bodies, with the author and date of every article
+// kept alongside so filters are applied while ranking instead of after it.
+@Component
+public class ArticleSearchIndex {
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Add or replace an article
+    public void put(long articleId, String title, String body, String authorId, Date dateCreated) {
+        entries.put(articleId, new Entry(authorId, dateCreated == null ? 0L : dateCreated.getTime()));
+        // Title words count twice, a match in the heading says more than one in the text
+        index.put(articleId, title, title, body);
+    }
+
+    public void remove(long articleId) {
+        index.remove(articleId);
+        entries.remove(articleId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleDeleted(ArticleDeletedEvent event) {
+        remove(event.getArticleId());
+    }
+
+    public void clear() {
+        index.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Best matches of the query by BM25 among the articles passing the filters, null filters match anything
+    public List<Long> search(String query, boolean fuzzy, String authorId, Long fromMillis, Long toMillis, int limit) {
+        LongPredicate filter = id -> matches(id, authorId, fromMillis, toMillis);
+        List<InvertedIndex.Hit> hits = fuzzy
+                ? index.searchFuzzy(query, limit, filter)
+                : index.search(query, limit, filter);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit hit : hits) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+
+    // Newest articles passing the filters, for searches without words
+    public List<Long> filter(String authorId, Long fromMillis, Long toMillis, int limit) {
+        Comparator<Map.Entry<Long, Entry>> newestFirst = Comparator
+                .comparingLong((Map.Entry<Long, Entry> e) -> e.getValue().dateMillis)
+                .thenComparingLong(Map.Entry::getKey);
+        // Min-heap holding the newest `limit` articles seen so far
+        PriorityQueue<Map.Entry<Long, Entry>> heap = new PriorityQueue<>(newestFirst);
+        for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+            if (!matches(entry.getValue(), authorId, fromMillis, toMillis)) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (newestFirst.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        List<Map.Entry<Long, Entry>> newest = new ArrayList<>(heap);
+        newest.sort(newestFirst.reversed());
+        List<Long> ids = new ArrayList<>(newest.size());
+        for (Map.Entry<Long, Entry> entry : newest) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    private boolean matches(long articleId, String authorId, Long fromMillis, Long toMillis) {
+        Entry entry = entries.get(articleId);
+        return entry != null && matches(entry, authorId, fromMillis, toMillis);
+    }
+
+    private static boolean matches(Entry entry, String authorId, Long fromMillis, Long toMillis) {
+        return (authorId == null || Objects.equals(entry.authorId, authorId))
+                && (fromMillis == null || entry.dateMillis >= fromMillis)
+                && (toMillis == null || entry.dateMillis < toMillis);
+    }
+
+    private record Entry(String authorId, long dateMillis) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Finds the indexed terms within a small edit distance of a query token without scanning the dictionary.
+// Every term is split into padded trigrams; candidates must share enough trigrams with the token
+// (an edit destroys at most three of them, a swap of neighbouring letters four) and are then verified
+// with a bounded edit distance that counts such a swap as one edit, so "tolkein" matches "tolkien".
+// Tokens too short to require any shared trigram are checked against the terms of similar length.
+// Not thread safe, the owning index guards it with its own lock.
+class FuzzyTermMatcher {
+
+    private static final int GRAM = 3;
+    private static final char PAD = '\u0000';
+
+    private final List<String> terms = new ArrayList<>();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final Map<String, IntPostings> grams = new HashMap<>();
+    private final Map<Integer, IntPostings> lengths = new HashMap<>();
+
+    // Per thread scratch space for counting shared trigrams, readers run concurrently
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    void add(String term) {
+        if (termIds.containsKey(term)) {
+            return;
+        }
+        int id;
+        if (freeIds.isEmpty()) {
+            id = terms.size();
+            terms.add(term);
+        } else {
+            id = freeIds.pop();
+            terms.set(id, term);
+        }
+        termIds.put(term, id);
+        for (String gram : grams(term)) {
+            grams.computeIfAbsent(gram, key -> new IntPostings()).add(id);
+        }
+        lengths.computeIfAbsent(term.length(), key -> new IntPostings()).add(id);
+    }
+
+    void remove(String term) {
+        Integer id = termIds.remove(term);
+        if (id == null) {
+            return;
+        }
+        for (String gram : grams(term)) {
+            IntPostings postings = grams.get(gram);
+            if (postings != null && postings.remove(id) && postings.size == 0) {
+                grams.remove(gram);
+            }
+        }
+        IntPostings sameLength = lengths.get(term.length());
+        if (sameLength != null && sameLength.remove(id) && sameLength.size == 0) {
+            lengths.remove(term.length());
+        }
+        terms.set(id, null);
+        freeIds.push(id);
+    }
+
+    void clear() {
+        terms.clear();
+        termIds.clear();
+        freeIds.clear();
+        grams.clear();
+        lengths.clear();
+    }
+
+    // Indexed terms within maxEdits of the token, mapped to their distance
+    Map<String, Integer> similar(String token, int maxEdits) {
+        Map<String, Integer> matches = new HashMap<>();
+        if (maxEdits == 0) {
+            if (termIds.containsKey(token)) {
+                matches.put(token, 0);
+            }
+            return matches;
+        }
+
+        Set<String> tokenGrams = grams(token);
+        int required = tokenGrams.size() - (GRAM + 1) * maxEdits;
+        if (required <= 0) {
+            // A match may share no trigram at all, "hte" and "the" have none in common
+            for (int length = token.length() - maxEdits; length <= token.length() + maxEdits; length++) {
+                IntPostings sameLength = lengths.get(length);
+                for (int i = 0; sameLength != null && i < sameLength.size; i++) {
+                    String term = terms.get(sameLength.ids[i]);
+                    int distance = distance(token, term, maxEdits);
+                    if (distance <= maxEdits) {
+                        matches.put(term, distance);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        Scratch scratch = SCRATCH.get();
+        scratch.reset(terms.size());
+        for (String gram : tokenGrams) {
+            IntPostings postings = grams.get(gram);
+            if (postings == null) {
+                continue;
+            }
+            for (int i = 0; i < postings.size; i++) {
+                scratch.increment(postings.ids[i]);
+            }
+        }
+
+        for (int i = 0; i < scratch.touchedCount; i++) {
+            int id = scratch.touched[i];
+            if (scratch.counts[id] < required) {
+                continue;
+            }
+            String term = terms.get(id);
+            if (Math.abs(term.length() - token.length()) > maxEdits) {
+                continue;
+            }
+            int distance = distance(token, term, maxEdits);
+            if (distance <= maxEdits) {
+                matches.put(term, distance);
+            }
+        }
+        return matches;
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = "" + PAD + PAD + term + PAD;
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            result.add(padded.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    // Optimal string alignment distance, gives up with maxEdits + 1 as soon as a row exceeds the bound
+    static int distance(String a, String b, int maxEdits) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    // Shared trigram counts by term id, plus the ids touched so resetting is proportional to the work done
+    private static final class Scratch {
+        private int[] counts = new int[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        void reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                if (touched[i] < counts.length) {
+                    counts[touched[i]] = 0;
+                }
+            }
+            touchedCount = 0;
+            if (counts.length < capacity) {
+                counts = new int[Math.max(capacity, counts.length * 2)];
+            }
+        }
+
+        void increment(int id) {
+            if (counts[id]++ == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = id;
+            }
+        }
+    }
+
+    // Growable set of term ids
+    private static final class IntPostings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
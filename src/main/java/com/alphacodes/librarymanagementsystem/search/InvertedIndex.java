@@ -0,0 +1,389 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// In-memory inverted index with BM25 ranking.
+// Documents are identified by their database id, postings are kept as primitive arrays together with the
+// document length, so scoring a term is a pass over arrays into a primitive accumulator with no boxing and
+// no per-posting lookups. Every document knows its slot in each of its posting lists, so removing it is a
+// swap with the last posting instead of a scan.
+public class InvertedIndex {
+
+    // Standard BM25 tuning
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Query tokens also match indexed terms they are a prefix of, at a lower weight
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    // Best first
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::id);
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final FuzzyTermMatcher fuzzyTerms = new FuzzyTermMatcher();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Hit(long id, double score) {
+    }
+
+    // Add or replace a document. Every field is tokenized into the same bag of terms.
+    public void put(long id, String... fields) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String field : fields) {
+            for (String token : TextAnalyzer.tokenize(field)) {
+                frequencies.merge(token, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (length == 0) {
+                return;
+            }
+            Document document = new Document(frequencies.keySet().toArray(new String[0]), length);
+            for (int t = 0; t < document.terms.length; t++) {
+                Postings postings = terms.get(document.terms[t]);
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(document.terms[t], postings);
+                    fuzzyTerms.add(document.terms[t]);
+                }
+                postings.add(id, frequencies.get(document.terms[t]), document, t);
+            }
+            documents.put(id, document);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            fuzzyTerms.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String query, int limit) {
+        return search(query, limit, id -> true);
+    }
+
+    // Rank the documents matching any query token, keeping the best `limit` that pass the filter
+    public List<Hit> search(String query, int limit, LongPredicate filter) {
+        // A token repeated in the query is scored once
+        Set<String> tokens = new LinkedHashSet<>(TextAnalyzer.tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return new ArrayList<>();
+            }
+            List<Postings> matched = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            match(tokens, matched, weights);
+            return score(matched, weights, limit, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of every document search would rank for the query, unranked and without a limit
+    public long[] matchingIds(String query) {
+        Set<String> tokens = new LinkedHashSet<>(TextAnalyzer.tokenize(query));
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> matched = new ArrayList<>();
+            match(tokens, matched, new ArrayList<>());
+            long reach = 0;
+            for (Postings postings : matched) {
+                reach += postings.size;
+            }
+            // The accumulator only serves to drop duplicates here
+            ScoreAccumulator seen = new ScoreAccumulator((int) Math.min(reach, documents.size()));
+            for (Postings postings : matched) {
+                for (int i = 0; i < postings.size; i++) {
+                    seen.add(postings.ids[i], 0);
+                }
+            }
+            return seen.keys();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Like search, but every query token also matches indexed terms a few typos away.
+    // Closer matches weigh more, an exact match keeps its full score.
+    public List<Hit> searchFuzzy(String query, int limit, LongPredicate filter) {
+        Set<String> tokens = new LinkedHashSet<>(TextAnalyzer.tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return new ArrayList<>();
+            }
+            List<Postings> matched = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            for (String token : tokens) {
+                for (Map.Entry<String, Integer> match : fuzzyTerms.similar(token, maxEdits(token)).entrySet()) {
+                    matched.add(terms.get(match.getKey()));
+                    weights.add(1.0 / (1 + match.getValue()));
+                }
+            }
+            return score(matched, weights, limit, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Posting lists of the exact terms and of up to MAX_PREFIX_EXPANSIONS terms each token is a prefix of
+    private void match(Set<String> tokens, List<Postings> matched, List<Double> weights) {
+        for (String token : tokens) {
+            Postings exact = terms.get(token);
+            if (exact != null) {
+                matched.add(exact);
+                weights.add(1.0);
+            }
+            if (token.length() >= MIN_PREFIX_LENGTH) {
+                int expansions = 0;
+                for (Postings postings : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    matched.add(postings);
+                    weights.add(PREFIX_WEIGHT);
+                    if (++expansions >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Short words allow fewer typos, otherwise almost everything would match
+    private static int maxEdits(String token) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return token.length() <= 5 ? 1 : 2;
+    }
+
+    private List<Hit> score(List<Postings> matched, List<Double> weights, int limit, LongPredicate filter) {
+        if (matched.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int n = documents.size();
+        // Sized once for the most documents the matched terms can reach, so it never grows
+        long reach = 0;
+        for (Postings postings : matched) {
+            reach += postings.size;
+        }
+        ScoreAccumulator scores = new ScoreAccumulator((int) Math.min(reach, n));
+        for (int i = 0; i < matched.size(); i++) {
+            accumulate(matched.get(i), weights.get(i), n, scores);
+        }
+        return topHits(scores, limit, filter);
+    }
+
+    private void accumulate(Postings postings, double weight, int n, ScoreAccumulator scores) {
+        double idf = Math.log(1 + (n - postings.size + 0.5) / (postings.size + 0.5));
+        double averageLength = (double) totalLength / n;
+
+        long[] ids = postings.ids;
+        int[] frequencies = postings.frequencies;
+        int[] lengths = postings.lengths;
+        for (int i = 0; i < postings.size; i++) {
+            int tf = frequencies[i];
+            double score = idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * lengths[i] / averageLength));
+            scores.add(ids[i], weight * score);
+        }
+    }
+
+    private List<Hit> topHits(ScoreAccumulator scores, int limit, LongPredicate filter) {
+        // Heap holding the best `limit` hits seen so far, the worst on top; equal scores rank the lower id first
+        PriorityQueue<Hit> heap = new PriorityQueue<>(RANKING.reversed());
+        for (int slot = 0; slot < scores.keys.length; slot++) {
+            long id = scores.keys[slot];
+            if (id == ScoreAccumulator.EMPTY || !filter.test(id)) {
+                continue;
+            }
+            double score = scores.values[slot];
+            if (heap.size() < limit) {
+                heap.add(new Hit(id, score));
+            } else if (score > heap.peek().score() || (score == heap.peek().score() && id < heap.peek().id())) {
+                heap.poll();
+                heap.add(new Hit(id, score));
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    private void removeLocked(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (int t = 0; t < document.terms.length; t++) {
+            Postings postings = terms.get(document.terms[t]);
+            postings.removeSlot(document.slots[t]);
+            if (postings.size == 0) {
+                terms.remove(document.terms[t]);
+                fuzzyTerms.remove(document.terms[t]);
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    // The document's terms, and its slot in the posting list of each of them
+    private static final class Document {
+        private final String[] terms;
+        private final int[] slots;
+        private final int length;
+
+        private Document(String[] terms, int length) {
+            this.terms = terms;
+            this.slots = new int[terms.length];
+            this.length = length;
+        }
+    }
+
+    // Growable posting list of (document id, term frequency, document length) entries.
+    // Each entry also points back at its document and the term's position in it, so a removal
+    // can move the last entry into the gap and tell that document its new slot
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int[] frequencies = new int[4];
+        private int[] lengths = new int[4];
+        private Document[] owners = new Document[4];
+        private int[] termPositions = new int[4];
+        private int size;
+
+        void add(long id, int frequency, Document owner, int termPosition) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                owners = Arrays.copyOf(owners, size * 2);
+                termPositions = Arrays.copyOf(termPositions, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            lengths[size] = owner.length;
+            owners[size] = owner;
+            termPositions[size] = termPosition;
+            owner.slots[termPosition] = size;
+            size++;
+        }
+
+        void removeSlot(int slot) {
+            size--;
+            if (slot != size) {
+                ids[slot] = ids[size];
+                frequencies[slot] = frequencies[size];
+                lengths[slot] = lengths[size];
+                owners[slot] = owners[size];
+                termPositions[slot] = termPositions[size];
+                owners[slot].slots[termPositions[slot]] = slot;
+            }
+            owners[size] = null;
+        }
+    }
+
+    // Open addressing map from document id to score, with linear probing
+    private static final class ScoreAccumulator {
+        // Database ids are positive, so this never collides with a real one
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final long[] keys;
+        private final double[] values;
+        private final int mask;
+
+        // Capacity for `expected` keys at no more than half full
+        ScoreAccumulator(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            values = new double[capacity];
+            mask = capacity - 1;
+        }
+
+        void add(long id, double score) {
+            int slot = (int) (mix(id) & mask);
+            while (keys[slot] != EMPTY && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = id;
+            values[slot] += score;
+        }
+
+        long[] keys() {
+            long[] ids = new long[keys.length];
+            int count = 0;
+            for (long key : keys) {
+                if (key != EMPTY) {
+                    ids[count++] = key;
+                }
+            }
+            return Arrays.copyOf(ids, count);
+        }
+
+        // Spreads sequential ids over the table
+        private static long mix(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 32);
+        }
+    }
+}
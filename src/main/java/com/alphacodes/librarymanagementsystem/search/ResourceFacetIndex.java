@@ -0,0 +1,234 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import com.alphacodes.librarymanagementsystem.DTO.ResourceFacetsDto;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Pre-aggregated facet counts for the catalog.
+// Running totals are kept for the whole catalog and, separately, for every category, every author and
+// every category and author pair, so counts under a category or author filter are read, not recomputed.
+// The facet values of every resource are kept too, to count the hits of a keyword search.
+// The sorted top lists of a view are cached until its counts change, so a read does not sort every value.
+@Component
+public class ResourceFacetIndex {
+
+    private static final int FACET_LIMIT = 100;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Facets all = new Facets();
+    private final Map<String, Facets> byCategory = new HashMap<>();
+    private final Map<String, Facets> byAuthor = new HashMap<>();
+    private final Map<CategoryAuthor, Facets> byCategoryAndAuthor = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Add or replace the facet values of a resource
+    public void put(long resourceId, String category, String author, Integer availability) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(resourceId);
+            Entry entry = new Entry(category, author, availability == null ? 0 : availability);
+            entries.put(resourceId, entry);
+            count(entry, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long resourceId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(resourceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            all.clear();
+            byCategory.clear();
+            byAuthor.clear();
+            byCategoryAndAuthor.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Only applied once the transaction that moved the counter has committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(ResourceAvailabilityChangedEvent event) {
+        if (event.getCause() == ResourceAvailabilityChangedEvent.Cause.UPDATE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(event.getResourceId());
+            if (entry == null) {
+                return;
+            }
+            count(entry, -1);
+            Entry moved = new Entry(entry.category, entry.author, Math.max(0, entry.availability + event.getDelta()));
+            entries.put(event.getResourceId(), moved);
+            count(moved, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Counts of the resources passing the category and author filters, a null filter matches anything
+    public ResourceFacetsDto counts(String category, String author) {
+        lock.readLock().lock();
+        try {
+            Facets facets;
+            if (category == null && author == null) {
+                facets = all;
+            } else if (author == null) {
+                facets = byCategory.get(category);
+            } else if (category == null) {
+                facets = byAuthor.get(author);
+            } else {
+                facets = byCategoryAndAuthor.get(new CategoryAuthor(category, author));
+            }
+            return facets == null ? new Facets().toDto() : facets.toDto();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Counts of the given resources that pass the category and author filters
+    public ResourceFacetsDto counts(long[] resourceIds, String category, String author) {
+        Facets facets = new Facets();
+        lock.readLock().lock();
+        try {
+            for (long resourceId : resourceIds) {
+                Entry entry = entries.get(resourceId);
+                if (entry != null && entry.accepts(category, author)) {
+                    facets.count(entry, 1);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return facets.toDto();
+    }
+
+    private void removeLocked(long resourceId) {
+        Entry entry = entries.remove(resourceId);
+        if (entry != null) {
+            count(entry, -1);
+        }
+    }
+
+    // Applies the entry to the totals of every view it is part of, views left empty are dropped
+    private void count(Entry entry, long delta) {
+        all.count(entry, delta);
+        if (entry.category != null) {
+            countIn(byCategory, entry.category, entry, delta);
+        }
+        if (entry.author != null) {
+            countIn(byAuthor, entry.author, entry, delta);
+        }
+        if (entry.category != null && entry.author != null) {
+            countIn(byCategoryAndAuthor, new CategoryAuthor(entry.category, entry.author), entry, delta);
+        }
+    }
+
+    private static <K> void countIn(Map<K, Facets> views, K key, Entry entry, long delta) {
+        Facets facets = views.computeIfAbsent(key, k -> new Facets());
+        facets.count(entry, delta);
+        if (facets.total <= 0) {
+            views.remove(key);
+        }
+    }
+
+    private static void increment(Map<String, Long> counts, String value, long delta) {
+        if (value == null) {
+            return;
+        }
+        // Drop values that no longer occur so the maps do not grow forever
+        counts.compute(value, (key, current) -> {
+            long next = (current == null ? 0 : current) + delta;
+            return next <= 0 ? null : next;
+        });
+    }
+
+    private static String bucket(int availability) {
+        if (availability <= 0) {
+            return "0";
+        } else if (availability <= 2) {
+            return "1-2";
+        }
+        return "3+";
+    }
+
+    private static Map<String, Long> top(Map<String, Long> counts) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(FACET_LIMIT)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    // Facet counts of one set of resources
+    private static final class Facets {
+        private long total;
+        private final Map<String, Long> categories = new HashMap<>();
+        private final Map<String, Long> authors = new HashMap<>();
+        private final Map<String, Long> availability = new HashMap<>();
+        // Top lists of the counts above, null until read after a change. Counts only change under the
+        // write lock; readers racing to fill it compute the same lists
+        private volatile TopLists topLists;
+
+        void count(Entry entry, long delta) {
+            total += delta;
+            increment(categories, entry.category, delta);
+            increment(authors, entry.author, delta);
+            increment(availability, bucket(entry.availability), delta);
+            topLists = null;
+        }
+
+        void clear() {
+            total = 0;
+            categories.clear();
+            authors.clear();
+            availability.clear();
+            topLists = null;
+        }
+
+        ResourceFacetsDto toDto() {
+            TopLists lists = topLists;
+            if (lists == null) {
+                lists = new TopLists(top(categories), top(authors), top(availability));
+                topLists = lists;
+            }
+            return new ResourceFacetsDto(total, lists.categories(), lists.authors(), lists.availability());
+        }
+    }
+
+    private record TopLists(Map<String, Long> categories, Map<String, Long> authors, Map<String, Long> availability) {
+    }
+
+    private record CategoryAuthor(String category, String author) {
+    }
+
+    private record Entry(String category, String author, int availability) {
+        boolean accepts(String categoryFilter, String authorFilter) {
+            return (categoryFilter == null || categoryFilter.equals(category))
+                    && (authorFilter == null || authorFilter.equals(author));
+        }
+    }
+}
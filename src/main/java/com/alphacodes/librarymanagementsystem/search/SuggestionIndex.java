@@ -0,0 +1,344 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import com.alphacodes.librarymanagementsystem.DTO.SuggestionDto;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Type-ahead over resource titles and authors, ranked by popularity.
+// The first TRIE_DEPTH characters of every key live in a small character trie whose nodes keep
+// their best suggestions up to date, so short prefixes are answered by copying a cached list.
+// Below that depth each trie leaf holds a sorted map of the full keys, longer prefixes scan only
+// the range of keys they start.
+// Popularity is the number of resources carrying the text plus the number of times they were issued.
+@Component
+public class SuggestionIndex {
+
+    public static final int TOP_K = 10;
+
+    private static final int TRIE_DEPTH = 3;
+    // Longer prefixes answered from a node's sorted keys are remembered until one of those keys changes
+    private static final int MAX_REMEMBERED_PREFIXES = 256;
+    // Besides the full text, a suggestion is also reachable from the start of its next words,
+    // enough for "rings" to find "The Lord of the Rings"
+    private static final int MAX_WORD_STARTS = 8;
+
+    private static final Comparator<Suggestion> BY_POPULARITY =
+            Comparator.comparingLong(Suggestion::weight).reversed().thenComparing(suggestion -> suggestion.text);
+
+    private Node root = new Node();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<Long, Suggestion[]> byResource = new HashMap<>();
+
+    // An update keeps the suggestions whose text did not change, with the borrows they collected
+    public synchronized void put(long resourceId, String title, String author) {
+        Suggestion[] previous = byResource.get(resourceId);
+        String[] texts = {title, author};
+        String[] types = {"TITLE", "AUTHOR"};
+        Suggestion[] attached = new Suggestion[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            Suggestion kept = previous == null ? null : previous[i];
+            if (kept != null && kept.key.equals(key(texts[i]))) {
+                attached[i] = kept;
+                continue;
+            }
+            if (kept != null) {
+                release(kept);
+            }
+            attached[i] = acquire(texts[i], types[i]);
+            if (attached[i] != null) {
+                attached[i].titles++;
+                raised(attached[i]);
+            }
+        }
+        byResource.put(resourceId, attached);
+    }
+
+    public synchronized void remove(long resourceId) {
+        removeLocked(resourceId);
+    }
+
+    public synchronized void clear() {
+        root = new Node();
+        suggestions.clear();
+        byResource.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAvailabilityChanged(ResourceAvailabilityChangedEvent event) {
+        if (event.getCause() != ResourceAvailabilityChangedEvent.Cause.ISSUE) {
+            return;
+        }
+        Suggestion[] attached = byResource.get(event.getResourceId());
+        if (attached == null) {
+            return;
+        }
+        for (Suggestion suggestion : attached) {
+            if (suggestion != null) {
+                suggestion.borrows++;
+                raised(suggestion);
+            }
+        }
+    }
+
+    public synchronized List<SuggestionDto> suggest(String prefix, int limit) {
+        List<SuggestionDto> result = new ArrayList<>();
+        String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        Node node = root;
+        for (int i = 0; i < Math.min(key.length(), TRIE_DEPTH) && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return result;
+        }
+
+        Collection<Suggestion> best = key.length() <= TRIE_DEPTH ? node.top() : node.range(key);
+        for (Suggestion suggestion : best) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(new SuggestionDto(suggestion.text, suggestion.type));
+        }
+        return result;
+    }
+
+    private Suggestion acquire(String text, String type) {
+        String key = key(text);
+        if (key.isEmpty()) {
+            return null;
+        }
+        Suggestion suggestion = suggestions.get(type + ":" + key);
+        if (suggestion == null) {
+            suggestion = new Suggestion(text.trim(), type, key, paths(key));
+            suggestions.put(type + ":" + key, suggestion);
+            for (String path : suggestion.paths) {
+                Node leaf = leaf(path, true);
+                leaf.add(path, suggestion);
+                leaf.ranges.clear();
+            }
+        }
+        return suggestion;
+    }
+
+    private void removeLocked(long resourceId) {
+        Suggestion[] attached = byResource.remove(resourceId);
+        if (attached == null) {
+            return;
+        }
+        for (Suggestion suggestion : attached) {
+            if (suggestion != null) {
+                release(suggestion);
+            }
+        }
+    }
+
+    // One resource less carries the text, the suggestion goes away with the last one
+    private void release(Suggestion suggestion) {
+        suggestion.titles--;
+        if (suggestion.titles <= 0) {
+            suggestions.remove(suggestion.type + ":" + suggestion.key);
+            for (String path : suggestion.paths) {
+                leaf(path, false).remove(path, suggestion);
+            }
+        }
+        lowered(suggestion);
+    }
+
+    // The trie node a key ends at, or its depth TRIE_DEPTH ancestor for longer keys
+    private Node leaf(String path, boolean create) {
+        Node node = root;
+        for (int i = 0; i < Math.min(path.length(), TRIE_DEPTH); i++) {
+            node = create ? node.childOrCreate(path.charAt(i)) : node.child(path.charAt(i));
+        }
+        return node;
+    }
+
+    // The weight went up: merge it into the cached top lists along every path leading to it
+    private void raised(Suggestion suggestion) {
+        for (String path : suggestion.paths) {
+            Node node = root;
+            for (int i = 0; node != null; i++) {
+                node.offer(suggestion);
+                node.ranges.clear();
+                node = i < Math.min(path.length(), TRIE_DEPTH) ? node.child(path.charAt(i)) : null;
+            }
+        }
+    }
+
+    // The weight went down: lists holding it may now miss a better entry, rebuild them on next lookup
+    private void lowered(Suggestion suggestion) {
+        for (String path : suggestion.paths) {
+            Node node = root;
+            for (int i = 0; node != null; i++) {
+                if (node.top != null && node.top.contains(suggestion)) {
+                    node.top = null;
+                }
+                node.ranges.clear();
+                node = i < Math.min(path.length(), TRIE_DEPTH) ? node.child(path.charAt(i)) : null;
+            }
+        }
+    }
+
+    private static String[] paths(String key) {
+        List<String> paths = new ArrayList<>();
+        paths.add(key);
+        for (int i = key.indexOf(' '); i >= 0 && paths.size() <= MAX_WORD_STARTS; i = key.indexOf(' ', i + 1)) {
+            paths.add(key.substring(i + 1));
+        }
+        return paths.toArray(new String[0]);
+    }
+
+    private static String key(String text) {
+        return text == null ? "" : String.join(" ", TextAnalyzer.tokenize(text));
+    }
+
+    private static final class Suggestion {
+        private final String text;
+        private final String type;
+        private final String key;
+        private final String[] paths;
+        private int titles;
+        private long borrows;
+
+        Suggestion(String text, String type, String key, String[] paths) {
+            this.text = text;
+            this.type = type;
+            this.key = key;
+            this.paths = paths;
+        }
+
+        long weight() {
+            return titles + borrows;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Children sorted by character, searched with binary search
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        // Keys ending in or passing through this node past the trie, only used at TRIE_DEPTH or shorter keys
+        private final TreeMap<String, List<Suggestion>> tail = new TreeMap<>();
+        // Best suggestions of this subtree, null when it has to be recomputed
+        private List<Suggestion> top = new ArrayList<>();
+        // Best suggestions for prefixes longer than the trie, computed from tail
+        private final Map<String, List<Suggestion>> ranges = new HashMap<>();
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            // A new child has an empty subtree, so this node's top list stays valid
+            int insertAt = -index - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        void add(String path, Suggestion suggestion) {
+            tail.computeIfAbsent(path, key -> new ArrayList<>(1)).add(suggestion);
+        }
+
+        void remove(String path, Suggestion suggestion) {
+            List<Suggestion> atPath = tail.get(path);
+            if (atPath != null && atPath.remove(suggestion) && atPath.isEmpty()) {
+                tail.remove(path);
+            }
+        }
+
+        void offer(Suggestion suggestion) {
+            if (top == null) {
+                return;
+            }
+            if (!top.contains(suggestion)) {
+                if (top.size() == TOP_K && BY_POPULARITY.compare(suggestion, top.get(TOP_K - 1)) >= 0) {
+                    return;
+                }
+                top.add(suggestion);
+            }
+            top.sort(BY_POPULARITY);
+            if (top.size() > TOP_K) {
+                top.remove(top.size() - 1);
+            }
+        }
+
+        List<Suggestion> top() {
+            if (top == null) {
+                List<Collection<Suggestion>> sources = new ArrayList<>(tail.values());
+                for (Node child : children) {
+                    sources.add(child.top());
+                }
+                top = best(sources);
+            }
+            return top;
+        }
+
+        List<Suggestion> range(String prefix) {
+            List<Suggestion> best = ranges.get(prefix);
+            if (best == null) {
+                best = best(tail.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+                if (ranges.size() >= MAX_REMEMBERED_PREFIXES) {
+                    ranges.clear();
+                }
+                ranges.put(prefix, best);
+            }
+            return best;
+        }
+
+        // The TOP_K most popular distinct suggestions, a suggestion can be reached by more than one path
+        static List<Suggestion> best(Iterable<? extends Collection<Suggestion>> groups) {
+            Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            PriorityQueue<Suggestion> heap = new PriorityQueue<>(BY_POPULARITY.reversed());
+            for (Collection<Suggestion> group : groups) {
+                for (Suggestion suggestion : group) {
+                    if (!seen.add(suggestion)) {
+                        continue;
+                    }
+                    if (heap.size() < TOP_K) {
+                        heap.add(suggestion);
+                    } else if (BY_POPULARITY.compare(suggestion, heap.peek()) < 0) {
+                        heap.poll();
+                        heap.add(suggestion);
+                    }
+                }
+            }
+            List<Suggestion> sorted = new ArrayList<>(heap);
+            sorted.sort(BY_POPULARITY);
+            return sorted;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.alphacodes.librarymanagementsystem.service;
 
 import com.alphacodes.librarymanagementsystem.DTO.ArticleCommentDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentPageDto;
 import com.alphacodes.librarymanagementsystem.Model.ArticleComment;
 import org.springframework.stereotype.Service;
 
@@ -11,4 +12,6 @@ public interface ArticleCommentService {
     ArticleComment addArticleComment(ArticleCommentDto articleCommentDto);
     String deleteArticleComment(int articleID, int articleCommentId);
     List<ArticleCommentDto> getAllArticleComments(int articleID);
+    // Comments after the cursor, oldest first
+    CommentPageDto getArticleCommentPage(int articleID, Integer afterId, int size);
 }
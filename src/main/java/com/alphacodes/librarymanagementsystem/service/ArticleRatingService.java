@@ -1,10 +1,19 @@
 package com.alphacodes.librarymanagementsystem.service;
 
 import com.alphacodes.librarymanagementsystem.DTO.RatingDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingHistogramDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingSummaryDto;
+
+import java.util.List;
 
 public interface ArticleRatingService {
     RatingDto addOrUpdateArticleRating(int articleID, RatingDto ratingDto);
     float getArticleRating(int articleID);
 
     float getArticleRatingByUserId(int articleID, String userId);
+
+    // Average, count and the user's own rating for each article, in the order given
+    List<RatingSummaryDto> getArticleRatings(List<Integer> articleIds, String userId);
+
+    RatingHistogramDto getArticleRatingHistogram(int articleID);
 }
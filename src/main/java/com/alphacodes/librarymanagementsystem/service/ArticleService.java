@@ -1,11 +1,18 @@
 package com.alphacodes.librarymanagementsystem.service;
 
 import com.alphacodes.librarymanagementsystem.DTO.ArticleDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedItemDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedPageDto;
 import com.alphacodes.librarymanagementsystem.DTO.ArticleViewDto;
+import com.alphacodes.librarymanagementsystem.DTO.TrendingArticleDto;
 import com.alphacodes.librarymanagementsystem.Model.Article;
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public interface ArticleService {
@@ -18,6 +25,8 @@ public interface ArticleService {
     // For article view dto
     List<ArticleViewDto> getAllArticleView();
     ArticleViewDto getArticleViewById(int articleId);
+    // Most viewed articles lately, views lose weight over time. Served from memory
+    List<TrendingArticleDto> getTrendingArticles(int limit);
 
     Article getArticleFullById(int articleId);
     // get article by passing author id
@@ -26,4 +35,14 @@ public interface ArticleService {
     ArticleDto editArticle(ArticleDto article, int articleId);
     // Method for delete articles
     String DeleteArticle(int articleId, String userId);
+
+    // One page of the article feed, newest first. Pass the returned next cursor to get the following page
+    ArticleFeedPageDto getArticleFeed(String cursor, int size);
+    // Articles matching the words of the query, best first, within the author and date filters.
+    // Without a query the newest articles passing the filters are returned. Every filter is optional
+    List<ArticleFeedItemDto> searchArticles(String query, boolean fuzzy, String authorId,
+                                            LocalDate from, LocalDate to, int limit);
+    byte[] getArticleImage(int articleId);
+    // File of the article image rendition in the blob store, empty if there is none or it was not migrated yet
+    Optional<Path> getArticleImageFile(int articleId, ImageRendition rendition);
 }
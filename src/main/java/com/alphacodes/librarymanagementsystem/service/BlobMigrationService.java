@@ -0,0 +1,7 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+public interface BlobMigrationService {
+    // Move article and profile images still stored in table rows to the blob store,
+    // returns the number of images moved
+    long migrateImages();
+}
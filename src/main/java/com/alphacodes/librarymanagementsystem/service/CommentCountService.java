@@ -0,0 +1,7 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+public interface CommentCountService {
+    // Recount the comment counters of every article and resource from the comment tables,
+    // returns the number of rows whose counter was rewritten
+    long rebuildCommentCounts();
+}
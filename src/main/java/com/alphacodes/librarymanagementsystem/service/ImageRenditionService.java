@@ -0,0 +1,15 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface ImageRenditionService {
+    // Queue generation of the smaller renditions of a stored image, returns immediately
+    void generateRenditions(String blobKey);
+
+    // File of the requested rendition. Falls back to the original while the rendition is not ready
+    // or when the image is already smaller than the rendition
+    Optional<Path> findRendition(String blobKey, ImageRendition rendition);
+}
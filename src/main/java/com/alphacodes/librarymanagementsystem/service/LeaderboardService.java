@@ -0,0 +1,11 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+import com.alphacodes.librarymanagementsystem.DTO.LeaderboardEntryDto;
+import com.alphacodes.librarymanagementsystem.enums.LeaderboardMetric;
+import com.alphacodes.librarymanagementsystem.enums.LeaderboardWindow;
+
+import java.util.List;
+
+public interface LeaderboardService {
+    List<LeaderboardEntryDto> getLeaderboard(LeaderboardMetric metric, LeaderboardWindow window, int limit);
+}
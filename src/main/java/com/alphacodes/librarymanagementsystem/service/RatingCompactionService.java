@@ -0,0 +1,9 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+public interface RatingCompactionService {
+    // Collapse repeated ratings of the same book by the same member to the latest one
+    // and add the unique (member, book) index, returns the number of rows removed
+    long compactResourceRatings();
+    // Same for ratings of the same article by the same member and the unique (articles, member) index
+    long compactArticleRatings();
+}
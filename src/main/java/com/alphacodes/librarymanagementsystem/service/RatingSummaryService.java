@@ -0,0 +1,7 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+public interface RatingSummaryService {
+    // Recompute the stored rating summaries from the raw ratings, returns the number of summary rows written
+    long rebuildResourceSummaries();
+    long rebuildArticleSummaries();
+}
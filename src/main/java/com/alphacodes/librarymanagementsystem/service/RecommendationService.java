@@ -0,0 +1,13 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+
+import java.util.List;
+
+public interface RecommendationService {
+    // Resources most similar to the given one by who rated and borrowed them, best first
+    List<ResourceDto> getRecommendations(Long resourceId, int limit);
+
+    // Recompute the neighbor table from the ratings and open issues, returns the number of resources covered
+    int rebuildRecommendations();
+}
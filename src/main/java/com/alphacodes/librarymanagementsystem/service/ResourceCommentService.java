@@ -1,12 +1,15 @@
 package com.alphacodes.librarymanagementsystem.service;
 
 import com.alphacodes.librarymanagementsystem.DTO.CommentDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentPageDto;
 
 import java.util.List;
 
 public interface ResourceCommentService {
     CommentDto addResourceComment(Long resourceId, CommentDto CommentDto);
     List<CommentDto> getAllResourceComments(Long resourceId);
+    // Comments after the cursor, oldest first
+    CommentPageDto getResourceCommentPage(Long resourceId, Long afterId, int size);
     CommentDto getResourceCommentById(Long resourceId, Long resourceCommentId);
     String deleteResourceComment(Long resourceId, Long resourceCommentId);
 }
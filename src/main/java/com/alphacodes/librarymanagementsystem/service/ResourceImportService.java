@@ -0,0 +1,13 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+import com.alphacodes.librarymanagementsystem.DTO.ResourceImportReportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ResourceImportService {
+    // CSV with a header row naming title, author, availability and category columns
+    ResourceImportReportDto importCsv(InputStream inputStream) throws IOException;
+    // JSON array of ResourceDto objects
+    ResourceImportReportDto importJson(InputStream inputStream) throws IOException;
+}
@@ -1,9 +1,18 @@
 package com.alphacodes.librarymanagementsystem.service;
 
 import com.alphacodes.librarymanagementsystem.DTO.RatingDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingHistogramDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingSummaryDto;
+
+import java.util.List;
 
 public interface ResourceRatingService {
     RatingDto addResourceRating(Long resourceId, RatingDto ratingDto);
     float getResourceRating(Long resourceId);
 
+    // Average, count and the user's own rating for each resource, in the order given
+    List<RatingSummaryDto> getResourceRatings(List<Long> resourceIds, String userId);
+
+    RatingHistogramDto getResourceRatingHistogram(Long resourceId);
+
 }
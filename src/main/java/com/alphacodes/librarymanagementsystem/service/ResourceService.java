@@ -1,19 +1,32 @@
 package com.alphacodes.librarymanagementsystem.service;
 
 import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceFacetsDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourcePageDto;
+import com.alphacodes.librarymanagementsystem.DTO.SuggestionDto;
 
 import java.util.List;
 
 public interface ResourceService {
     ResourceDto addResource(ResourceDto resourceDto);
     List<ResourceDto> getAllResources();
+    // Keyset paginated catalog listing, pass the previous page's next cursor as afterId
+    ResourcePageDto getResourcePage(Long afterId, int size);
     ResourceDto getResourceById(Long resourceId);
     String deleteResource(Long resourceId);
     ResourceDto updateResource(Long resourceId, ResourceDto resourceDto);
     List<ResourceDto> searchResource(String keyword);
+    // Same as searchResource but also matches words within a small edit distance of the keyword
+    List<ResourceDto> searchResource(String keyword, boolean fuzzy);
     List<ResourceDto> getResourcesByCategory(String category);
     List<ResourceDto> getResourcesByAuthor(String author);
     List<ResourceDto> getResourcesByTitle(String title);
+    // Counts per category, author and availability bucket for a search and/or filter, all optional
+    ResourceFacetsDto getFacets(String keyword, String category, String author);
+    // Type-ahead suggestions for titles and authors starting with the prefix, most popular first
+    List<SuggestionDto> suggest(String prefix, int limit);
+    // Add every resource with an id above afterId to the search indexes, for rows written by bulk imports
+    void indexResourcesAfter(long afterId);
 
 
 
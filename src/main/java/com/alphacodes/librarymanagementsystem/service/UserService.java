@@ -6,9 +6,12 @@ import com.alphacodes.librarymanagementsystem.DTO.UserSaveRequest;
 import com.alphacodes.librarymanagementsystem.DTO.UserSaveResponse;
 import com.alphacodes.librarymanagementsystem.Model.Student;
 import com.alphacodes.librarymanagementsystem.Model.User;
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
     UserSaveResponse saveDetails(UserSaveRequest userSaveRequest, Student student);
@@ -18,4 +21,10 @@ public interface UserService {
     boolean changePassword(String email, String password);
 
     UserProfileDto getUserProfileById(String id);
+
+    // Stores the image in the blob store, null if the user does not exist
+    UserProfileDto updateProfileImage(String id, byte[] image);
+    byte[] getProfileImage(String id);
+    // File of the profile image rendition in the blob store, empty if there is none or it was not migrated yet
+    Optional<Path> getProfileImageFile(String id, ImageRendition rendition);
 }
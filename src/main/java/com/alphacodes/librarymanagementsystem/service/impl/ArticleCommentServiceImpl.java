@@ -1,14 +1,17 @@
 package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.DTO.ArticleCommentDto;
-import com.alphacodes.librarymanagementsystem.DTO.CommentDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentPageDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentViewDto;
 import com.alphacodes.librarymanagementsystem.Model.ArticleComment;
 import com.alphacodes.librarymanagementsystem.Model.User;
 import com.alphacodes.librarymanagementsystem.repository.ArticleCommentRepository;
 import com.alphacodes.librarymanagementsystem.repository.ArticleRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.ArticleCommentService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -16,6 +19,9 @@ import java.util.stream.Collectors;
 @Service
 public class ArticleCommentServiceImpl implements ArticleCommentService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
 
     private final ArticleCommentRepository articleCommentRepository;
@@ -29,6 +35,7 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
     }
 
     @Override
+    @Transactional
     public ArticleComment addArticleComment(ArticleCommentDto articleCommentDto) {
         ArticleComment articleComment = new ArticleComment();
 
@@ -45,15 +52,21 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
                         .orElseThrow(() -> new RuntimeException("Article not found with id " + articleCommentDto.getArticleId()))
         );
 
-        // save article comment
-        return articleCommentRepository.save(articleComment);
+        // save article comment, the count is raised in the same transaction
+        ArticleComment saved = articleCommentRepository.save(articleComment);
+        articleRepository.addCommentCount(saved.getArticle().getArticleId(), 1);
+        return saved;
     }
 
     @Override
+    @Transactional
     public String deleteArticleComment(int articleID, int articleCommentId) {
-        ArticleComment articleComment = articleCommentRepository.findById(articleCommentId).orElseThrow(
+        int articleId = articleCommentRepository.findArticleIdById(articleCommentId).orElseThrow(
             () -> new RuntimeException("Article Comment not found with id " + articleCommentId));
-        articleCommentRepository.delete(articleComment);
+        // Only counted down when this call removed the row, a concurrent delete of the same comment does not count twice
+        if (articleCommentRepository.deleteCommentRow(articleCommentId) == 1) {
+            articleRepository.addCommentCount(articleId, -1);
+        }
         return "Article Comment deleted Successfully";
     }
 
@@ -75,4 +88,16 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CommentPageDto getArticleCommentPage(int articleID, Integer afterId, int size) {
+        if (!articleRepository.existsById(articleID)) {
+            throw new RuntimeException("Article not found with id " + articleID);
+        }
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<CommentViewDto> comments = articleCommentRepository.findPageAfter(
+                articleID, afterId == null ? 0 : afterId, PageRequest.of(0, pageSize));
+        // A full page may be followed by more, the last id is where the next one starts
+        Long next = comments.size() < pageSize ? null : comments.get(comments.size() - 1).getCommentId();
+        return new CommentPageDto(comments, next);
+    }
 }
@@ -1,17 +1,27 @@
 package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.DTO.RatingDto;
-import com.alphacodes.librarymanagementsystem.Model.Article;
+import com.alphacodes.librarymanagementsystem.DTO.RatingHistogramDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingSummaryDto;
 import com.alphacodes.librarymanagementsystem.Model.ArticleRating;
-import com.alphacodes.librarymanagementsystem.Model.User;
+import com.alphacodes.librarymanagementsystem.Model.ArticleRatingSummary;
+import com.alphacodes.librarymanagementsystem.buffer.ArticleRatingBuffer;
 import com.alphacodes.librarymanagementsystem.repository.ArticleRatingRepository;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRatingSummaryRepository;
 import com.alphacodes.librarymanagementsystem.repository.ArticleRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.ArticleRatingService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ArticleRatingServiceImpl implements ArticleRatingService {
@@ -22,35 +32,71 @@ public class ArticleRatingServiceImpl implements ArticleRatingService {
 
     private final UserRepository userRepository;
 
-    public ArticleRatingServiceImpl(ArticleRatingRepository articleRatingRepository, ArticleRepository articleRepository, UserRepository userRepository) {
+    private final ArticleRatingSummaryRepository summaryRepository;
+
+    private final ArticleRatingBuffer ratingBuffer;
+
+    // Ids accepted by one batch lookup, keeps the IN lists bounded
+    private static final int MAX_BATCH_SIZE = 200;
+
+    public ArticleRatingServiceImpl(ArticleRatingRepository articleRatingRepository, ArticleRepository articleRepository,
+                                    UserRepository userRepository, ArticleRatingSummaryRepository summaryRepository,
+                                    ArticleRatingBuffer ratingBuffer) {
         this.articleRatingRepository = articleRatingRepository;
         this.articleRepository = articleRepository;
         this.userRepository = userRepository;
+        this.summaryRepository = summaryRepository;
+        this.ratingBuffer = ratingBuffer;
     }
 
     @Override
+    @Transactional
     public RatingDto addOrUpdateArticleRating(int articleID, RatingDto ratingDto) {
-        Article article = articleRepository.findById(articleID).orElseThrow(
-                () -> new RuntimeException("Article not found with id " + articleID));
-
-        // get user details
-        User user = userRepository.findByUserID(ratingDto.getUserID());
+        if (ratingBuffer.isEnabled()) {
+            return bufferArticleRating(articleID, ratingDto);
+        }
 
-        Optional<ArticleRating> existingRating = articleRatingRepository.findByArticleAndCommenter(article, user);
-        ArticleRating articleRating;
+        if (!articleRepository.existsById(articleID)) {
+            throw new RuntimeException("Article not found with id " + articleID);
+        }
+        String userId = ratingDto.getUserID();
+        if (userId == null || !userRepository.existsByUserID(userId)) {
+            throw new RuntimeException("User not found with id " + userId);
+        }
 
-        if (existingRating.isPresent()) {
-            articleRating = existingRating.get();
-            articleRating.setRating(ratingDto.getRating());
+        // A member rating the article again replaces their rating, the summary moves by the difference.
+        // The summary row is locked first, so the previous rating is read only after any concurrent
+        // rating of this article has committed; two first ratings by the same member cannot both count
+        float rating = ratingDto.getRating();
+        summaryRepository.lockSummary(articleID);
+        Float previousRating = articleRatingRepository.findRatingForUpdate(articleID, userId).orElse(null);
+        if (previousRating == null) {
+            articleRatingRepository.upsertRating(articleID, userId, rating);
         } else {
-            articleRating = new ArticleRating();
-            articleRating.setArticle(article);
-            articleRating.setCommenter(user);
-            articleRating.setRating(ratingDto.getRating());
+            articleRatingRepository.updateRating(articleID, userId, rating);
+        }
+        summaryRepository.addRating(articleID, previousRating, rating);
+
+        RatingDto saved = new RatingDto();
+        saved.setUserID(userId);
+        saved.setRating(rating);
+        return saved;
+    }
+
+    // Write-behind mode: only existence checks now, the row and the summary are written by the next flush
+    private RatingDto bufferArticleRating(int articleID, RatingDto ratingDto) {
+        if (!articleRepository.existsById(articleID)) {
+            throw new RuntimeException("Article not found with id " + articleID);
+        }
+        if (!userRepository.existsByUserID(ratingDto.getUserID())) {
+            throw new RuntimeException("User not found with id " + ratingDto.getUserID());
         }
+        ratingBuffer.put(articleID, ratingDto.getUserID(), ratingDto.getRating());
 
-        ArticleRating savedRating = articleRatingRepository.save(articleRating);
-        return convertToRatingDto(savedRating);
+        RatingDto accepted = new RatingDto();
+        accepted.setUserID(ratingDto.getUserID());
+        accepted.setRating(ratingDto.getRating());
+        return accepted;
     }
 
     @Override
@@ -58,6 +104,11 @@ public class ArticleRatingServiceImpl implements ArticleRatingService {
 
     @Override
     public float getArticleRatingByUserId(int articleID, String userId) {
+        Optional<Float> buffered = ratingBuffer.peek(articleID, userId);
+        if (buffered.isPresent()) {
+            return buffered.get();
+        }
+
         Optional<ArticleRating> optionalRating = articleRatingRepository.findByArticleAndCommenter(
                 articleRepository.findById(articleID).orElseThrow(
                         () -> new RuntimeException("Article not found with id " + articleID)),
@@ -73,20 +124,75 @@ public class ArticleRatingServiceImpl implements ArticleRatingService {
     }
 
 
-    private float calculateArticleRating(int articleID) {
-        List<ArticleRating> ratings = articleRatingRepository.findByArticle(articleRepository.findById(articleID).orElseThrow(
-            () -> new RuntimeException("Article not found with id " + articleID)));
+    @Override
+    public List<RatingSummaryDto> getArticleRatings(List<Integer> articleIds, String userId) {
+        Set<Integer> ids = new LinkedHashSet<>(articleIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " articles can be looked up at once");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
 
-        if (ratings.isEmpty()) {
-            throw new RuntimeException("No ratings found for article with id " + articleID);
+        // One query for the summaries and one for the user's own ratings, whatever the number of ids
+        Map<Integer, ArticleRatingSummary> summaries = new HashMap<>();
+        for (ArticleRatingSummary summary : summaryRepository.findAllById(ids)) {
+            summaries.put(summary.getArticleId(), summary);
+        }
+        Map<Integer, Float> userRatings = new HashMap<>();
+        if (userId != null) {
+            for (Object[] row : articleRatingRepository.findUserRatings(userId, ids)) {
+                userRatings.put((Integer) row[0], (Float) row[1]);
+            }
+            for (Integer id : ids) {
+                ratingBuffer.peek(id, userId).ifPresent(rating -> userRatings.put(id, rating));
+            }
         }
 
-        float sum = 0;
-        for (ArticleRating rating : ratings) {
-            sum += rating.getRating();
+        List<RatingSummaryDto> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ArticleRatingSummary summary = summaries.get(id);
+            long count = summary == null ? 0 : summary.getRatingCount();
+            Float average = count == 0 ? null : (float) (summary.getRatingSum() / count);
+            result.add(new RatingSummaryDto(id.longValue(), average, count, userRatings.get(id)));
+        }
+        return result;
+    }
+
+    // One primary key lookup on the summary row
+    @Override
+    public RatingHistogramDto getArticleRatingHistogram(int articleID) {
+        ArticleRatingSummary summary = summaryRepository.findById(articleID).orElse(null);
+        if (summary == null) {
+            if (!articleRepository.existsById(articleID)) {
+                throw new RuntimeException("Article not found with id " + articleID);
+            }
+            summary = new ArticleRatingSummary();
+            summary.setArticleId(articleID);
+        }
+
+        Map<Integer, Long> stars = new LinkedHashMap<>();
+        stars.put(1, summary.getStars1());
+        stars.put(2, summary.getStars2());
+        stars.put(3, summary.getStars3());
+        stars.put(4, summary.getStars4());
+        stars.put(5, summary.getStars5());
+        long count = summary.getRatingCount();
+        return new RatingHistogramDto((long) articleID, count,
+                count == 0 ? null : (float) (summary.getRatingSum() / count), stars);
+    }
+
+    private float calculateArticleRating(int articleID) {
+        ArticleRatingSummary summary = summaryRepository.findById(articleID).orElse(null);
+
+        if (summary == null || summary.getRatingCount() == 0) {
+            if (!articleRepository.existsById(articleID)) {
+                throw new RuntimeException("Article not found with id " + articleID);
+            }
+            throw new RuntimeException("No ratings found for article with id " + articleID);
         }
 
-        return sum / ratings.size();
+        return (float) (summary.getRatingSum() / summary.getRatingCount());
     }
 
     private ArticleRating convertToArticleRating(RatingDto ratingDto) {
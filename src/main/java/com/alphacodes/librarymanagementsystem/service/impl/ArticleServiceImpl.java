@@ -1,35 +1,84 @@
 package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.DTO.ArticleDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedItemDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleFeedPageDto;
+import com.alphacodes.librarymanagementsystem.DTO.ArticleIndexDto;
 import com.alphacodes.librarymanagementsystem.DTO.ArticleViewDto;
+import com.alphacodes.librarymanagementsystem.DTO.TrendingArticleDto;
 import com.alphacodes.librarymanagementsystem.Model.Article;
 import com.alphacodes.librarymanagementsystem.Model.User;
+import com.alphacodes.librarymanagementsystem.blob.BlobStore;
+import com.alphacodes.librarymanagementsystem.buffer.ArticleViewCounter;
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
+import com.alphacodes.librarymanagementsystem.enums.Role;
+import com.alphacodes.librarymanagementsystem.event.ArticleDeletedEvent;
 import com.alphacodes.librarymanagementsystem.repository.ArticleCommentRepository;
 import com.alphacodes.librarymanagementsystem.repository.ArticleRatingRepository;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRatingSummaryRepository;
 import com.alphacodes.librarymanagementsystem.repository.ArticleRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
+import com.alphacodes.librarymanagementsystem.search.ArticleSearchIndex;
 import com.alphacodes.librarymanagementsystem.service.ArticleService;
+import com.alphacodes.librarymanagementsystem.service.ImageRenditionService;
 import com.alphacodes.librarymanagementsystem.util.ImageUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ArticleServiceImpl implements ArticleService {
 
+    private static final int DEFAULT_FEED_SIZE = 20;
+    private static final int MAX_FEED_SIZE = 100;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int INDEX_PAGE_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleServiceImpl.class);
+
     private final ArticleRepository articleRepository;
 
     private final UserRepository userRepository;
     private final ArticleCommentRepository articleCommentRepository;
     private final ArticleRatingRepository articleRatingRepository;
-
-    public ArticleServiceImpl(ArticleRepository articleRepository, UserRepository userRepository, ArticleCommentRepository articleCommentRepository, ArticleRatingRepository articleRatingRepository) {
+    private final ArticleRatingSummaryRepository articleRatingSummaryRepository;
+    private final ArticleViewCounter articleViewCounter;
+    private final BlobStore blobStore;
+    private final ImageRenditionService imageRenditionService;
+    // Title and body search, kept in step with every add, edit and delete below
+    private final ArticleSearchIndex articleSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ArticleServiceImpl(ArticleRepository articleRepository, UserRepository userRepository, ArticleCommentRepository articleCommentRepository, ArticleRatingRepository articleRatingRepository, ArticleRatingSummaryRepository articleRatingSummaryRepository, ArticleViewCounter articleViewCounter, BlobStore blobStore, ImageRenditionService imageRenditionService, ArticleSearchIndex articleSearchIndex, ApplicationEventPublisher eventPublisher) {
         this.articleRepository = articleRepository;
         this.userRepository = userRepository;
         this.articleCommentRepository = articleCommentRepository;
         this.articleRatingRepository = articleRatingRepository;
+        this.articleRatingSummaryRepository = articleRatingSummaryRepository;
+        this.articleViewCounter = articleViewCounter;
+        this.blobStore = blobStore;
+        this.imageRenditionService = imageRenditionService;
+        this.articleSearchIndex = articleSearchIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -37,6 +86,7 @@ public class ArticleServiceImpl implements ArticleService {
         try {
             Article article = mapToArticle(articleDto);
             Article newArticle = articleRepository.save(article);
+            indexArticle(newArticle);
             return mapToArticleDto(newArticle);
         } catch (Exception e) {
             // Log the exception for debugging
@@ -47,8 +97,9 @@ public class ArticleServiceImpl implements ArticleService {
 
 
     @Override
+    @Transactional
     public String deleteArticle(int articleID) {
-        articleRepository.deleteById(articleID);
+        deleteWithChildren(articleID);
         return "Article deleted Successfully";
     }
 
@@ -72,14 +123,8 @@ public class ArticleServiceImpl implements ArticleService {
         articleDto.setTitle(article.getTitle());
         articleDto.setBody(article.getBody());
 
-        // Compress the image bytes before storing
-        byte[] articleImgBytes = article.getArticleImg();
-        if (articleImgBytes != null) {
-            byte[] compressedImage = ImageUtils.compressBytes(articleImgBytes);
-            articleDto.setArticleImg(compressedImage);
-        } else {
-            articleDto.setArticleImg(null); // Assuming null is acceptable for your use case
-        }
+        // Images are returned as stored, they are not compressed again on every read
+        articleDto.setArticleImg(readImage(article));
         return articleDto;
     }
 
@@ -94,9 +139,10 @@ public class ArticleServiceImpl implements ArticleService {
 
         // Check if articleImg is not null before decompressing
         if (articleDto.getArticleImg() != null) {
-            // Decompress the stored image bytes before returning
+            // Inflate images sent deflated, images sent as they are pass through
             byte[] decompressedImage = ImageUtils.decompressBytes(articleDto.getArticleImg());
-            article.setArticleImg(decompressedImage);
+            article.setArticleImgRef(blobStore.put(decompressedImage));
+            imageRenditionService.generateRenditions(article.getArticleImgRef());
         }
 
         return article;
@@ -111,9 +157,15 @@ public class ArticleServiceImpl implements ArticleService {
 
     public ArticleViewDto getArticleViewById(int articleId) {
         Optional<Article> article = articleRepository.findById(articleId);
+        article.ifPresent(found -> articleViewCounter.recordView(found.getArticleId()));
         return article.map(this::convertToDto).orElse(null);
     }
 
+    @Override
+    public List<TrendingArticleDto> getTrendingArticles(int limit) {
+        return articleViewCounter.trending(limit <= 0 ? DEFAULT_SEARCH_LIMIT : limit);
+    }
+
     @Override
     public Article getArticleFullById(int articleId) {
         return articleRepository.findById(articleId).orElse(null);
@@ -138,13 +190,17 @@ public class ArticleServiceImpl implements ArticleService {
 
             // Handle image update
             if (articleDto.getArticleImg() != null) {
-                updatedArticle.setArticleImg(articleDto.getArticleImg()); // Ensure no additional compression here
+                updatedArticle.setArticleImgRef(blobStore.put(articleDto.getArticleImg())); // Ensure no additional compression here
+                imageRenditionService.generateRenditions(updatedArticle.getArticleImgRef());
             } else {
-                updatedArticle.setArticleImg(null); // Assuming null is acceptable for your use case
+                updatedArticle.setArticleImgRef(null); // Assuming null is acceptable for your use case
             }
+            // Any image stored in the row before the blob store is replaced either way
+            updatedArticle.setArticleImg(null);
 
             // Save the updated article
             articleRepository.save(updatedArticle);
+            indexArticle(updatedArticle);
 
             return mapToArticleDto(updatedArticle);
         } else {
@@ -153,42 +209,122 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
+    @Transactional
     public String DeleteArticle(int articleId, String userId) {
-        Optional<Article> existingArticle = articleRepository.findById(articleId);
+        String authorId = articleRepository.findAuthorIdById(articleId)
+                .orElseThrow(() -> new RuntimeException("Article not found with id " + articleId));
 
-        if (existingArticle.isPresent()) {
-            Article article = existingArticle.get();
-
-            // Check if the user is the author of the article
-            if (article.getAuthor().getUserID().equals(userId)) {
-                //Delete comments and ratings associated with the article
-
-                //01.Find and Deleted comments associated with the article
-                articleCommentRepository
-                        .findByArticle(article)
-                        .forEach(articleCommentRepository::delete);
-                System.out.println("Comments deleted successfully");
-
-                //02. Find Article Rating and delete it
-                articleRatingRepository.findByArticle(article)
-                        .forEach(articleRatingRepository::delete);
-
-                // Delete the article
-                articleRepository.deleteById(articleId);
-                return "Article deleted successfully";
-            }  else {
-                // check the user is LIBRARIAN
-                User user = userRepository.findByUserID(userId);
-                if (user.getRole().equals("LIBRARIAN")) {
-                    articleRepository.deleteById(articleId);
-                    return "Article deleted successfully by librarian";
-                }
-
-                throw new RuntimeException("You are not authorized to delete this article");
-            }
+        // Check if the user is the author of the article
+        if (authorId.equals(userId)) {
+            deleteWithChildren(articleId);
+            return "Article deleted successfully";
+        }
+
+        // check the user is LIBRARIAN
+        User user = userRepository.findByUserID(userId);
+        if (user != null && user.getRole() == Role.LIBRARIAN) {
+            deleteWithChildren(articleId);
+            return "Article deleted successfully by librarian";
+        }
+
+        throw new RuntimeException("You are not authorized to delete this article");
+    }
+
+    @Override
+    public ArticleFeedPageDto getArticleFeed(String cursor, int size) {
+        int pageSize = size <= 0 ? DEFAULT_FEED_SIZE : Math.min(size, MAX_FEED_SIZE);
+        PageRequest page = PageRequest.of(0, pageSize);
+
+        List<ArticleFeedItemDto> articles;
+        if (cursor == null || cursor.isBlank()) {
+            articles = articleRepository.findFeedFirstPage(page);
         } else {
-            throw new RuntimeException("Article not found with id " + articleId);
+            // Cursor is the date and id of the last article of the previous page
+            long dateMillis;
+            int articleId;
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                dateMillis = Long.parseLong(parts[0]);
+                articleId = Integer.parseInt(parts[1]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new RuntimeException("Invalid feed cursor " + cursor);
+            }
+            articles = articleRepository.findFeedPageBefore(new Date(dateMillis), articleId, page);
+        }
+
+        // A short page means there is nothing left to read
+        String next = null;
+        if (articles.size() == pageSize) {
+            ArticleFeedItemDto last = articles.get(articles.size() - 1);
+            String position = last.getDateCreated().getTime() + ":" + last.getArticleId();
+            next = Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
         }
+        return new ArticleFeedPageDto(articles, next);
+    }
+
+    @Override
+    public Optional<Path> getArticleImageFile(int articleId, ImageRendition rendition) {
+        return Optional.ofNullable(articleRepository.findImageRefById(articleId))
+                .flatMap(ref -> imageRenditionService.findRendition(ref, rendition));
+    }
+
+    @Override
+    public List<ArticleFeedItemDto> searchArticles(String query, boolean fuzzy, String authorId,
+                                                   LocalDate from, LocalDate to, int limit) {
+        int resultLimit = limit <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(limit, MAX_SEARCH_LIMIT);
+        String author = authorId == null || authorId.isBlank() ? null : authorId;
+        ZoneId zone = ZoneId.systemDefault();
+        Long fromMillis = from == null ? null : from.atStartOfDay(zone).toInstant().toEpochMilli();
+        // The to date is included
+        Long toMillis = to == null ? null : to.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        List<Long> ids = query == null || query.isBlank()
+                ? articleSearchIndex.filter(author, fromMillis, toMillis, resultLimit)
+                : articleSearchIndex.search(query, fuzzy, author, fromMillis, toMillis, resultLimit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Fetch the hits in one query and return them in the order the index ranked them
+        Map<Integer, ArticleFeedItemDto> byId = articleRepository
+                .findFeedItemsByIdIn(ids.stream().map(Long::intValue).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ArticleFeedItemDto::getArticleId, Function.identity()));
+        return ids.stream()
+                .map(id -> byId.get(id.intValue()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Build the search index from a keyset scan of the articles once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        long start = System.currentTimeMillis();
+        articleSearchIndex.clear();
+        int cursor = 0;
+        List<ArticleIndexDto> page;
+        do {
+            page = articleRepository.findIndexPageAfter(cursor, PageRequest.of(0, INDEX_PAGE_SIZE));
+            for (ArticleIndexDto article : page) {
+                articleSearchIndex.put(article.getArticleId(), article.getTitle(), article.getBody(),
+                        article.getAuthorId(), article.getDateCreated());
+                cursor = article.getArticleId();
+            }
+        } while (page.size() == INDEX_PAGE_SIZE);
+        log.info("Indexed {} articles for search in {} ms", articleSearchIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public byte[] getArticleImage(int articleId) {
+        String ref = articleRepository.findImageRefById(articleId);
+        if (ref != null) {
+            return blobStore.read(ref);
+        }
+        byte[] image = articleRepository.findImageById(articleId);
+        if (image == null) {
+            throw new RuntimeException("Image not found for article with id " + articleId);
+        }
+        return image;
     }
 
     private ArticleViewDto convertToDto(Article article) {
@@ -197,7 +333,41 @@ public class ArticleServiceImpl implements ArticleService {
         dto.setUserID(article.getAuthor().getUserID());
         dto.setTitle(article.getTitle());
         dto.setBody(article.getBody());
-        dto.setArticleImg(article.getArticleImg());
+        dto.setViewCount(article.getViewCount() + articleViewCounter.pendingViews(article.getArticleId()));
+        dto.setCommentCount(article.getCommentCount());
+        if (article.getArticleImgRef() != null || article.getArticleImg() != null) {
+            String imageUrl = "/article/" + article.getArticleId() + "/image";
+            dto.setImageUrl(imageUrl);
+            dto.setThumbnailUrl(imageUrl + "?size=" + ImageRendition.THUMBNAIL.variant());
+        }
         return dto;
     }
+
+    // Comments, ratings and the rating summary go first with one statement each, then the article.
+    // Runs inside the caller's transaction, so either all of it is deleted or nothing.
+    // The article row is locked first: a write-behind flush reads it with a shared lock before writing
+    // ratings, so it either finishes before the delete or waits and then finds the article gone.
+    // The search index, view counter and rating buffer drop the article only once the delete has committed
+    private void deleteWithChildren(int articleId) {
+        articleRepository.lockById(articleId)
+                .orElseThrow(() -> new RuntimeException("Article not found with id " + articleId));
+        articleCommentRepository.deleteByArticleId(articleId);
+        articleRatingRepository.deleteByArticleId(articleId);
+        articleRatingSummaryRepository.deleteRange(articleId, articleId);
+        articleRepository.deleteArticleRow(articleId);
+        eventPublisher.publishEvent(new ArticleDeletedEvent(articleId));
+    }
+
+    private void indexArticle(Article article) {
+        articleSearchIndex.put(article.getArticleId(), article.getTitle(), article.getBody(),
+                article.getAuthor() == null ? null : article.getAuthor().getUserID(), article.getDateCreated());
+    }
+
+    // Image bytes from the blob store, or from the row for articles not migrated yet
+    private byte[] readImage(Article article) {
+        if (article.getArticleImgRef() != null) {
+            return blobStore.read(article.getArticleImgRef());
+        }
+        return article.getArticleImg();
+    }
 }
\ No newline at end of file
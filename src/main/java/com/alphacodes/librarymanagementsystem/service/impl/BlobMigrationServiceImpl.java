@@ -0,0 +1,102 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.blob.BlobStore;
+import com.alphacodes.librarymanagementsystem.service.BlobMigrationService;
+import com.alphacodes.librarymanagementsystem.service.ImageRenditionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+// Moves images from the LOB columns to the blob store.
+// Rows are taken in small batches, each in its own transaction. Every image is read on its own
+// and streamed to disk, so only one is in flight at a time and the buffer pool is not flooded.
+// A migrated row gets its blob key and the LOB is cleared in the same update, so the migration
+// can be stopped and run again at any point.
+@Service
+public class BlobMigrationServiceImpl implements BlobMigrationService {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final Logger log = LoggerFactory.getLogger(BlobMigrationServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+    private final ImageRenditionService imageRenditionService;
+    private final boolean migrateOnStartup;
+
+    public BlobMigrationServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, BlobStore blobStore,
+                                    ImageRenditionService imageRenditionService,
+                                    @Value("${library.blob-store.migrate-on-startup:false}") boolean migrateOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.blobStore = blobStore;
+        this.imageRenditionService = imageRenditionService;
+        this.migrateOnStartup = migrateOnStartup;
+    }
+
+    @Override
+    public synchronized long migrateImages() {
+        long start = System.currentTimeMillis();
+        long articles = migrate("articles", "article_id", "article_img", "article_img_ref");
+        long users = migrate("users", "user_id", "profile_img", "profile_img_ref");
+        log.info("Moved {} article images and {} profile images to the blob store in {} ms",
+                articles, users, System.currentTimeMillis() - start);
+        return articles + users;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            migrateImages();
+        }
+    }
+
+    private long migrate(String table, String idColumn, String lobColumn, String refColumn) {
+        String pendingSql = "SELECT " + idColumn + " FROM " + table +
+                " WHERE " + lobColumn + " IS NOT NULL AND " + refColumn + " IS NULL LIMIT " + BATCH_SIZE;
+        String readSql = "SELECT " + lobColumn + " FROM " + table + " WHERE " + idColumn + " = ?";
+        // The ref check skips rows given a new image while the batch ran
+        String updateSql = "UPDATE " + table + " SET " + refColumn + " = ?, " + lobColumn + " = NULL " +
+                "WHERE " + idColumn + " = ? AND " + refColumn + " IS NULL";
+
+        long moved = 0;
+        while (true) {
+            // Migrated rows drop out of the query, so every batch starts from the top
+            Integer batch = transactionTemplate.execute(status -> {
+                List<Object> ids = jdbcTemplate.queryForList(pendingSql, Object.class);
+                for (Object id : ids) {
+                    String key = jdbcTemplate.query(readSql, rs -> {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        try (InputStream image = rs.getBinaryStream(1)) {
+                            return image == null ? null : blobStore.put(image);
+                        } catch (IOException e) {
+                            throw new RuntimeException("Failed to read image of " + table + " row " + id, e);
+                        }
+                    }, id);
+                    if (key != null) {
+                        jdbcTemplate.update(updateSql, key, id);
+                        // Images the queue has no room for are resized when first requested
+                        imageRenditionService.generateRenditions(key);
+                    }
+                }
+                return ids.size();
+            });
+            if (batch == null || batch == 0) {
+                return moved;
+            }
+            moved += batch;
+        }
+    }
+}
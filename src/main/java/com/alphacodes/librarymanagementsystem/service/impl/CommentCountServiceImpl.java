@@ -0,0 +1,79 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.service.CommentCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+// Recounts articles.comment_count and resource.comment_count from the comment tables.
+// The counters are kept by the comment services as comments come and go; this fills them in for
+// comments written before the columns existed and repairs drift. Ids are taken in ranges, each
+// counted with one grouped query joined into one update in its own transaction, so no lock is
+// held on more than a range of rows at a time.
+@Service
+public class CommentCountServiceImpl implements CommentCountService {
+
+    private static final int RANGE_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCountServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean checkOnStartup;
+
+    public CommentCountServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   @Value("${library.comment-counts.check-on-startup:true}") boolean checkOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkOnStartup = checkOnStartup;
+    }
+
+    @Override
+    public synchronized long rebuildCommentCounts() {
+        long start = System.currentTimeMillis();
+        long articles = rebuild("articles", "article_id", "article_comments", "articles");
+        long resources = rebuild("resource", "resource_id", "resource_comment", "book");
+        log.info("Recounted comments of {} articles and {} resources in {} ms",
+                articles, resources, System.currentTimeMillis() - start);
+        return articles + resources;
+    }
+
+    // The totals are compared first, counters only need a rebuild when they do not add up
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        if (checkOnStartup && (!totalsMatch("articles", "article_comments") || !totalsMatch("resource", "resource_comment"))) {
+            rebuildCommentCounts();
+        }
+    }
+
+    private boolean totalsMatch(String table, String commentTable) {
+        Long counted = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(comment_count), 0) FROM " + table, Long.class);
+        Long comments = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + commentTable, Long.class);
+        return Objects.equals(counted, comments);
+    }
+
+    private long rebuild(String table, String idColumn, String commentTable, String foreignKey) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table, Long.class);
+        // Rows without comments find no match in the join and are set to 0
+        String updateSql = "UPDATE " + table + " t LEFT JOIN (" +
+                "SELECT " + foreignKey + " AS id, COUNT(*) AS comments FROM " + commentTable +
+                " WHERE " + foreignKey + " BETWEEN ? AND ? GROUP BY " + foreignKey + ") c ON c.id = t." + idColumn +
+                " SET t.comment_count = COALESCE(c.comments, 0) WHERE t." + idColumn + " BETWEEN ? AND ?";
+
+        long updated = 0;
+        for (long rangeStart = 1; rangeStart <= maxId; rangeStart += RANGE_SIZE) {
+            long from = rangeStart;
+            long to = rangeStart + RANGE_SIZE - 1;
+            Integer rows = transactionTemplate.execute(status -> jdbcTemplate.update(updateSql, from, to, from, to));
+            updated += rows == null ? 0 : rows;
+        }
+        return updated;
+    }
+}
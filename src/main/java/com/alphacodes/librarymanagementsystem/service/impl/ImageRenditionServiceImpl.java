@@ -0,0 +1,245 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.blob.BlobStore;
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
+import com.alphacodes.librarymanagementsystem.service.ImageRenditionService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Resizes uploaded images with the JDK image APIs on a small fixed pool with a bounded queue,
+// so a burst of uploads cannot take over the request threads or the heap.
+// Renditions are stored as variants of the original blob, so they need no database column and
+// are shared by every row pointing at the same image. Until a rendition exists the original is served.
+@Service
+public class ImageRenditionServiceImpl implements ImageRenditionService {
+
+    // Largest rendition first, each smaller one is scaled from the previous one
+    private static final ImageRendition[] SCALED = {ImageRendition.MEDIUM, ImageRendition.THUMBNAIL};
+
+    // Larger images are not decoded at all
+    private static final long MAX_PIXELS = 100_000_000L;
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private static final int MAX_UNREADABLE = 10_000;
+
+    private static final Logger log = LoggerFactory.getLogger(ImageRenditionServiceImpl.class);
+
+    private final BlobStore blobStore;
+    private final ThreadPoolExecutor executor;
+
+    // Keys queued or being processed, a key is only queued once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Keys ImageIO cannot decode, not retried on every request
+    private final Set<String> unreadable = ConcurrentHashMap.newKeySet();
+
+    public ImageRenditionServiceImpl(BlobStore blobStore,
+                                     @Value("${library.image-renditions.threads:2}") int threads,
+                                     @Value("${library.image-renditions.queue-size:1000}") int queueSize) {
+        this.blobStore = blobStore;
+        // Decode in memory instead of through temporary files
+        ImageIO.setUseCache(false);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "image-renditions-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void generateRenditions(String blobKey) {
+        if (blobKey == null || !pending.add(blobKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(blobKey);
+                } catch (Exception e) {
+                    log.error("Failed to generate renditions of image {}", blobKey, e);
+                } finally {
+                    pending.remove(blobKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full, the rendition is generated when it is first requested
+            pending.remove(blobKey);
+            log.warn("Image rendition queue is full, skipped {}", blobKey);
+        }
+    }
+
+    @Override
+    public Optional<Path> findRendition(String blobKey, ImageRendition rendition) {
+        if (rendition == ImageRendition.ORIGINAL) {
+            return blobStore.find(blobKey);
+        }
+        Optional<Path> file = blobStore.findVariant(blobKey, rendition.variant());
+        if (file.isPresent()) {
+            return file;
+        }
+        // Not generated yet, e.g. for images moved from the database
+        if (!unreadable.contains(blobKey)) {
+            generateRenditions(blobKey);
+        }
+        return blobStore.find(blobKey);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void generate(String blobKey) throws IOException {
+        Optional<Path> original = blobStore.find(blobKey);
+        if (original.isEmpty()) {
+            return;
+        }
+        Decoded decoded = decode(original.get(), SCALED[0].getMaxDimension());
+        if (decoded == null) {
+            if (unreadable.size() >= MAX_UNREADABLE) {
+                unreadable.clear();
+            }
+            unreadable.add(blobKey);
+            return;
+        }
+
+        byte[] originalBytes = null;
+        BufferedImage source = decoded.image;
+        for (ImageRendition rendition : SCALED) {
+            int max = rendition.getMaxDimension();
+            byte[] data;
+            if (decoded.width <= max && decoded.height <= max) {
+                // Already small enough, keep the uploaded file rather than encoding it again
+                if (originalBytes == null) {
+                    originalBytes = Files.readAllBytes(original.get());
+                }
+                data = originalBytes;
+            } else {
+                source = scaleToFit(source, max);
+                data = encode(source);
+            }
+            blobStore.putVariant(blobKey, rendition.variant(), data);
+        }
+    }
+
+    // Decodes the first image of the file. Large images are subsampled while decoding so the
+    // decoded copy stays around twice the largest rendition instead of the full resolution
+    private static Decoded decode(Path file, int targetDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * targetDimension));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return new Decoded(reader.read(0, param), width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the image until it is close to the target and draws the last step exactly,
+    // bilinear steps of at most 2x keep edges smooth without the cost of bicubic
+    private static BufferedImage scaleToFit(BufferedImage image, int max) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= max && height <= max) {
+            return image;
+        }
+        double scale = (double) max / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // PNG keeps transparency, everything else becomes JPEG
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            // Indexed and grey images as decoded, the JPEG writer wants RGB
+            image = draw(image, image.getWidth(), image.getHeight());
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private record Decoded(BufferedImage image, int width, int height) {
+    }
+}
@@ -2,16 +2,21 @@ package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.Model.Fine;
 import com.alphacodes.librarymanagementsystem.Model.Issue;
-import com.alphacodes.librarymanagementsystem.Model.Resource;
 import com.alphacodes.librarymanagementsystem.Model.User;
+import com.alphacodes.librarymanagementsystem.cache.ResourceCache;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
 import com.alphacodes.librarymanagementsystem.repository.FineRepository;
 import com.alphacodes.librarymanagementsystem.repository.IssueRepository;
+import com.alphacodes.librarymanagementsystem.repository.ResourceDailyActivityRepository;
 import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.IssueService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.Optional;
 
@@ -21,6 +26,9 @@ public class IssueServiceImpl implements IssueService {
     @Autowired
     private ResourceRepository resourceRepository;
 
+    @Autowired
+    private ResourceCache resourceCache;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -33,31 +41,34 @@ public class IssueServiceImpl implements IssueService {
     @Autowired
     private FineServiceImpl fineService;
 
+    @Autowired
+    private ResourceDailyActivityRepository activityRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
 
     // Function 2 issue resource
     @Override
+    @Transactional
     public String issueResource(Long resourceId, int memberId, int librarianId) {
-        Optional<Resource> resourceOpt = resourceRepository.findById(resourceId);
+        boolean resourceExists = resourceCache.exists(resourceId);
         Optional<User> memberOpt = userRepository.findById((int) memberId);
         Optional<User> librarianOpt = userRepository.findById((int) librarianId);
 
-        if (resourceOpt.isPresent() && memberOpt.isPresent() && librarianOpt.isPresent()) {
-            Resource resource = resourceOpt.get();
+        if (resourceExists && memberOpt.isPresent() && librarianOpt.isPresent()) {
             User member = memberOpt.get();
             User librarian = librarianOpt.get();
 
-            // Get resource availability count
-            Integer resourceCount = resource.getAvailability();
-
-            // Check resource availability
-            if (resourceCount > 0) {
-                // Decrease the availability count
-                resource.setAvailability(resourceCount - 1);
-                resourceRepository.save(resource);
+            // Check and decrease the availability count in one conditional update
+            if (resourceRepository.decrementAvailability(resourceId) == 1) {
+                eventPublisher.publishEvent(new ResourceAvailabilityChangedEvent(
+                        resourceId, -1, ResourceAvailabilityChangedEvent.Cause.ISSUE));
+                activityRepository.addActivity(resourceId, LocalDate.now(), 1, 0, 0);
 
                 // Create new Issue record
                 Issue issue = new Issue();
-                issue.setBook(resource);
+                issue.setBook(resourceRepository.getReferenceById(resourceId));
                 issue.setMember(member);
                 issue.setLibrarian(librarian);
                 issue.setDate(new Date());
@@ -86,14 +97,12 @@ public class IssueServiceImpl implements IssueService {
 
     // get Return resources
     //@Override
+    @Transactional
     public String returnResource(Long resourceId, int memberId) {
-        Optional<Resource> resourceOpt = resourceRepository.findById(resourceId);
+        boolean resourceExists = resourceCache.exists(resourceId);
         Optional<User> memberOpt = userRepository.findById(memberId);
 
-        if (resourceOpt.isPresent() && memberOpt.isPresent()) {
-            Resource resource = resourceOpt.get();
-            User member = memberOpt.get();
-
+        if (resourceExists && memberOpt.isPresent()) {
             // Find the issue record
             Optional<Issue> issueOpt = issueRepository.findIssueByMemberId(memberId);
 
@@ -104,8 +113,9 @@ public class IssueServiceImpl implements IssueService {
                 issueRepository.delete(issue);
 
                 // Increase the availability count of the resource
-                resource.setAvailability(resource.getAvailability() + 1);
-                resourceRepository.save(resource);
+                resourceRepository.incrementAvailability(resourceId);
+                eventPublisher.publishEvent(new ResourceAvailabilityChangedEvent(
+                        resourceId, 1, ResourceAvailabilityChangedEvent.Cause.RETURN));
 
 
                 // Calculate fine
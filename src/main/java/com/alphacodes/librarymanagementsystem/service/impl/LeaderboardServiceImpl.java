@@ -0,0 +1,286 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.DTO.LeaderboardEntryDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.Model.ResourceDailyActivity;
+import com.alphacodes.librarymanagementsystem.Model.ResourceRatingSummary;
+import com.alphacodes.librarymanagementsystem.cache.ResourceCache;
+import com.alphacodes.librarymanagementsystem.enums.LeaderboardMetric;
+import com.alphacodes.librarymanagementsystem.enums.LeaderboardWindow;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
+import com.alphacodes.librarymanagementsystem.event.ResourceRatedEvent;
+import com.alphacodes.librarymanagementsystem.repository.ResourceDailyActivityRepository;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRatingSummaryRepository;
+import com.alphacodes.librarymanagementsystem.service.LeaderboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+// Top resources by rating and by borrows for the last week, the last month and all time.
+// Counters per resource are kept in memory, all time plus one map per day for the last month,
+// and updated from committed issue and rating events. A scheduled refresh copies them and ranks
+// the copy into fixed size lists with titles resolved, so a request only copies a prefix of a list.
+@Service
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardServiceImpl.class);
+
+    private final ResourceDailyActivityRepository activityRepository;
+    private final ResourceRatingSummaryRepository ratingSummaryRepository;
+    private final ResourceCache resourceCache;
+    private final int size;
+    // Weight of the window wide mean in the rating score, so one 5 star rating does not top the list
+    private final double priorWeight;
+
+    private final Map<Long, Counters> allTime = new HashMap<>();
+    private final TreeMap<LocalDate, Map<Long, Counters>> days = new TreeMap<>();
+    private boolean dirty = true;
+    private final Object refreshLock = new Object();
+
+    private volatile Map<LeaderboardMetric, Map<LeaderboardWindow, List<LeaderboardEntryDto>>> boards = Map.of();
+
+    public LeaderboardServiceImpl(ResourceDailyActivityRepository activityRepository,
+                                  ResourceRatingSummaryRepository ratingSummaryRepository,
+                                  ResourceCache resourceCache,
+                                  @Value("${library.leaderboard.size:50}") int size,
+                                  @Value("${library.leaderboard.rating-prior-weight:5}") double priorWeight) {
+        this.activityRepository = activityRepository;
+        this.ratingSummaryRepository = ratingSummaryRepository;
+        this.resourceCache = resourceCache;
+        this.size = size;
+        this.priorWeight = priorWeight;
+    }
+
+    @Override
+    public List<LeaderboardEntryDto> getLeaderboard(LeaderboardMetric metric, LeaderboardWindow window, int limit) {
+        List<LeaderboardEntryDto> board = boards.getOrDefault(metric, Map.of()).getOrDefault(window, List.of());
+        return List.copyOf(board.subList(0, Math.max(0, Math.min(limit, board.size()))));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate since = windowStart(LocalDate.now());
+        List<ResourceRatingSummary> ratings = ratingSummaryRepository.findAll();
+        List<Object[]> borrows = activityRepository.sumBorrowsByResource();
+        List<ResourceDailyActivity> recent = activityRepository.findByActivityDateGreaterThanEqual(since);
+
+        synchronized (this) {
+            allTime.clear();
+            days.clear();
+            for (ResourceRatingSummary summary : ratings) {
+                Counters counters = allTime.computeIfAbsent(summary.getResourceId(), id -> new Counters());
+                counters.ratingSum = summary.getRatingSum();
+                counters.ratingCount = summary.getRatingCount();
+            }
+            for (Object[] row : borrows) {
+                allTime.computeIfAbsent((Long) row[0], id -> new Counters()).borrows = ((Number) row[1]).longValue();
+            }
+            for (ResourceDailyActivity activity : recent) {
+                days.computeIfAbsent(activity.getActivityDate(), day -> new HashMap<>())
+                        .computeIfAbsent(activity.getResourceId(), id -> new Counters())
+                        .add(activity.getBorrows(), activity.getRatingSum(), activity.getRatingCount());
+            }
+            dirty = true;
+        }
+        refresh();
+        log.info("Leaderboard loaded from {} daily activity rows", recent.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(ResourceAvailabilityChangedEvent event) {
+        if (event.getCause() == ResourceAvailabilityChangedEvent.Cause.ISSUE) {
+            record(event.getResourceId(), 1, 0, 0);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRated(ResourceRatedEvent event) {
+        // An edit is the old rating retracted plus the new one counted today, applied together
+        synchronized (this) {
+            if (event.getPreviousRating() != null) {
+                retractRating(event.getResourceId(), event.getPreviousRatingDay(), event.getPreviousRating());
+            }
+            record(event.getResourceId(), 0, event.getRating(), 1);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.leaderboard.refresh-millis:5000}")
+    public void refresh() {
+        // One refresh at a time, so an older snapshot is never published over a newer one
+        synchronized (refreshLock) {
+            LocalDate today = LocalDate.now();
+            Map<Long, Counters> allTimeSnapshot;
+            TreeMap<LocalDate, Map<Long, Counters>> daysSnapshot;
+            synchronized (this) {
+                // Drop days that left the longest window, also when nothing else changed
+                if (!days.isEmpty() && days.firstKey().isBefore(windowStart(today))) {
+                    days.headMap(windowStart(today)).clear();
+                    dirty = true;
+                }
+                if (!dirty) {
+                    return;
+                }
+                // Only the copy is made under the lock the rating and issue listeners wait on
+                allTimeSnapshot = copy(allTime);
+                daysSnapshot = new TreeMap<>();
+                for (Map.Entry<LocalDate, Map<Long, Counters>> day : days.entrySet()) {
+                    daysSnapshot.put(day.getKey(), copy(day.getValue()));
+                }
+                dirty = false;
+            }
+
+            // Ranking and title lookups work on the snapshot, most titles are cache hits
+            Map<LeaderboardMetric, Map<LeaderboardWindow, List<LeaderboardEntryDto>>> next =
+                    new EnumMap<>(LeaderboardMetric.class);
+            for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                Map<Long, Counters> counters = window == LeaderboardWindow.ALL
+                        ? allTimeSnapshot : sumDays(daysSnapshot, today, window.getDays());
+                next.computeIfAbsent(LeaderboardMetric.BORROWED, metric -> new EnumMap<>(LeaderboardWindow.class))
+                        .put(window, resolve(top(counters, borrowScore(), value -> value.borrows > 0)));
+                next.computeIfAbsent(LeaderboardMetric.RATED, metric -> new EnumMap<>(LeaderboardWindow.class))
+                        .put(window, resolve(top(counters, ratingScore(counters), value -> value.ratingCount > 0)));
+            }
+            boards = next;
+        }
+    }
+
+    private synchronized void record(Long resourceId, long borrows, double ratingSum, long ratingCount) {
+        allTime.computeIfAbsent(resourceId, id -> new Counters()).add(borrows, ratingSum, ratingCount);
+        days.computeIfAbsent(LocalDate.now(), day -> new HashMap<>())
+                .computeIfAbsent(resourceId, id -> new Counters())
+                .add(borrows, ratingSum, ratingCount);
+        dirty = true;
+    }
+
+    // Takes an edited rating out of the day it was given, so every day keeps an average of real
+    // ratings. Days before the longest window are no longer kept, and for a rating whose day is
+    // unknown only the all time counters change
+    private synchronized void retractRating(Long resourceId, LocalDate day, double rating) {
+        Counters counters = allTime.get(resourceId);
+        if (counters != null) {
+            counters.add(0, -rating, -1);
+        }
+        Map<Long, Counters> dayCounters = day == null ? null : days.get(day);
+        Counters counted = dayCounters == null ? null : dayCounters.get(resourceId);
+        if (counted != null) {
+            counted.add(0, -rating, -1);
+        }
+        dirty = true;
+    }
+
+    private static LocalDate windowStart(LocalDate today) {
+        return today.minusDays(LeaderboardWindow.MONTH.getDays() - 1);
+    }
+
+    private static Map<Long, Counters> copy(Map<Long, Counters> counters) {
+        Map<Long, Counters> copy = new HashMap<>(counters.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    private static Map<Long, Counters> sumDays(TreeMap<LocalDate, Map<Long, Counters>> days, LocalDate today,
+                                               int windowDays) {
+        Map<Long, Counters> sums = new HashMap<>();
+        for (Map<Long, Counters> day : days.tailMap(today.minusDays(windowDays - 1)).values()) {
+            for (Map.Entry<Long, Counters> entry : day.entrySet()) {
+                Counters counters = entry.getValue();
+                sums.computeIfAbsent(entry.getKey(), id -> new Counters())
+                        .add(counters.borrows, counters.ratingSum, counters.ratingCount);
+            }
+        }
+        return sums;
+    }
+
+    private static Comparator<Map.Entry<Long, Counters>> borrowScore() {
+        return Comparator.comparingDouble(entry -> entry.getValue().borrows);
+    }
+
+    // Bayesian average, pulled towards the mean of the window until a resource has enough ratings
+    private Comparator<Map.Entry<Long, Counters>> ratingScore(Map<Long, Counters> counters) {
+        double sum = 0;
+        long count = 0;
+        for (Counters value : counters.values()) {
+            sum += value.ratingSum;
+            count += value.ratingCount;
+        }
+        double mean = count == 0 ? 0 : sum / count;
+        return Comparator.comparingDouble(entry ->
+                (priorWeight * mean + entry.getValue().ratingSum) / (priorWeight + entry.getValue().ratingCount));
+    }
+
+    // Highest scoring entries first, using a min-heap bounded to the list size
+    private List<Map.Entry<Long, Counters>> top(Map<Long, Counters> counters,
+                                                Comparator<Map.Entry<Long, Counters>> score,
+                                                Predicate<Counters> include) {
+        Comparator<Map.Entry<Long, Counters>> order = score.thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<Long, Counters>> heap = new PriorityQueue<>(size + 1, order);
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            if (!include.test(entry.getValue())) {
+                continue;
+            }
+            heap.add(entry);
+            if (heap.size() > size) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Counters>> top = new ArrayList<>(heap.size());
+        for (Map.Entry<Long, Counters> entry : heap) {
+            top.add(entry);
+        }
+        top.sort(order.reversed());
+        return top;
+    }
+
+    private List<LeaderboardEntryDto> resolve(List<Map.Entry<Long, Counters>> ranked) {
+        List<LeaderboardEntryDto> entries = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Counters> entry : ranked) {
+            // Deleted resources drop out here
+            ResourceDto resource = resourceCache.get(entry.getKey()).orElse(null);
+            if (resource == null) {
+                continue;
+            }
+            Counters counters = entry.getValue();
+            entries.add(new LeaderboardEntryDto(entry.getKey(), resource.getTitle(), resource.getAuthor(),
+                    counters.borrows,
+                    counters.ratingCount == 0 ? 0 : counters.ratingSum / counters.ratingCount,
+                    counters.ratingCount));
+        }
+        return entries;
+    }
+
+    private static final class Counters {
+        private long borrows;
+        private double ratingSum;
+        private long ratingCount;
+
+        void add(long borrows, double ratingSum, long ratingCount) {
+            this.borrows += borrows;
+            this.ratingSum += ratingSum;
+            this.ratingCount += ratingCount;
+        }
+
+        Counters copy() {
+            Counters copy = new Counters();
+            copy.add(borrows, ratingSum, ratingCount);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.service.RatingCompactionService;
+import com.alphacodes.librarymanagementsystem.service.RatingSummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One-off clean up from the time resource and article ratings could be inserted twice.
+// Works through the rated ids in ranges; each range finds the superseded rows of every
+// (member, rated id) pair and deletes them by primary key in its own short transaction, so only
+// those rows are locked and only briefly. The unique index is added online afterwards.
+@Service
+public class RatingCompactionServiceImpl implements RatingCompactionService {
+
+    private static final long CHUNK_IDS = 500;
+
+    private static final RatingTable RESOURCE_RATINGS = new RatingTable("resource_rating", "resource_rating_id",
+            "book", "uk_resource_rating_member_book", "member, book");
+    private static final RatingTable ARTICLE_RATINGS = new RatingTable("article_rating", "article_rating_id",
+            "articles", "uk_article_rating_article_member", "articles, member");
+
+    private static final Logger log = LoggerFactory.getLogger(RatingCompactionServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RatingSummaryService ratingSummaryService;
+
+    public RatingCompactionServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                       RatingSummaryService ratingSummaryService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ratingSummaryService = ratingSummaryService;
+    }
+
+    @Override
+    public synchronized long compactResourceRatings() {
+        long removed = compact(RESOURCE_RATINGS);
+        // Sums and counts included the removed rows
+        if (removed > 0) {
+            ratingSummaryService.rebuildResourceSummaries();
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized long compactArticleRatings() {
+        long removed = compact(ARTICLE_RATINGS);
+        if (removed > 0) {
+            ratingSummaryService.rebuildArticleSummaries();
+        }
+        return removed;
+    }
+
+    // Hibernate cannot add the unique constraints while duplicates exist, so the first start
+    // after the upgrade compacts and adds them here. Runs before the summary rebuild check
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void compactIfIndexMissing() {
+        if (!hasUniqueIndex(RESOURCE_RATINGS)) {
+            compactResourceRatings();
+        }
+        if (!hasUniqueIndex(ARTICLE_RATINGS)) {
+            compactArticleRatings();
+        }
+    }
+
+    private long compact(RatingTable table) {
+        long start = System.currentTimeMillis();
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(" + table.ratedColumn() + "), 0) FROM " + table.name(), Long.class);
+        // Every row of a duplicated pair except the newest one
+        String supersededSql = "SELECT r." + table.idColumn() + " FROM " + table.name() + " r " +
+                "JOIN (SELECT member, " + table.ratedColumn() + ", MAX(" + table.idColumn() + ") AS keep_id " +
+                "FROM " + table.name() + " WHERE " + table.ratedColumn() + " BETWEEN ? AND ? " +
+                "GROUP BY member, " + table.ratedColumn() + " HAVING COUNT(*) > 1) d " +
+                "ON r.member = d.member AND r." + table.ratedColumn() + " = d." + table.ratedColumn() +
+                " AND r." + table.idColumn() + " < d.keep_id";
+        String deleteSql = "DELETE FROM " + table.name() + " WHERE " + table.idColumn() + " = ?";
+
+        long removed = 0;
+        for (long from = 0; from <= (maxId == null ? 0 : maxId); from += CHUNK_IDS) {
+            long chunkFrom = from;
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> superseded = jdbcTemplate.queryForList(supersededSql, Long.class,
+                        chunkFrom, chunkFrom + CHUNK_IDS - 1);
+                List<Object[]> ids = new ArrayList<>(superseded.size());
+                for (Long id : superseded) {
+                    ids.add(new Object[]{id});
+                }
+                jdbcTemplate.batchUpdate(deleteSql, ids);
+                return ids.size();
+            });
+            removed += deleted == null ? 0 : deleted;
+        }
+
+        addUniqueIndex(table);
+        log.info("Removed {} superseded rows of {} in {} ms", removed, table.name(), System.currentTimeMillis() - start);
+        return removed;
+    }
+
+    private boolean hasUniqueIndex(RatingTable table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                Integer.class, table.name(), table.uniqueIndex());
+        return count != null && count > 0;
+    }
+
+    private void addUniqueIndex(RatingTable table) {
+        if (hasUniqueIndex(table)) {
+            return;
+        }
+        try {
+            // In place and without a table lock, writes continue while the index is built
+            jdbcTemplate.execute("ALTER TABLE " + table.name() + " ADD UNIQUE INDEX " + table.uniqueIndex() +
+                    " (" + table.indexColumns() + "), ALGORITHM=INPLACE, LOCK=NONE");
+        } catch (DataAccessException e) {
+            // A duplicate written while compacting, the next run picks it up
+            log.error("Adding the unique index on {} failed, run the compaction again", table.name(), e);
+        }
+    }
+
+    // A ratings table: its primary key, the column of the rated id and the unique index over (member, rated id)
+    private record RatingTable(String name, String idColumn, String ratedColumn, String uniqueIndex,
+                               String indexColumns) {
+    }
+}
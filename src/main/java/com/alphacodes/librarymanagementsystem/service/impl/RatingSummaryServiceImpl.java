@@ -0,0 +1,100 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.repository.ArticleRatingRepository;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRatingSummaryRepository;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRatingRepository;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRatingSummaryRepository;
+import com.alphacodes.librarymanagementsystem.service.RatingSummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.LongBinaryOperator;
+
+// Repairs the rating summaries (sum, count and star counters) from the raw rating rows.
+// Works through the ids in fixed ranges, each range deleted and recomputed with one
+// INSERT ... SELECT in its own short transaction, so no lock is held for the whole table.
+@Service
+public class RatingSummaryServiceImpl implements RatingSummaryService {
+
+    private static final long CHUNK_IDS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(RatingSummaryServiceImpl.class);
+
+    private final ResourceRatingSummaryRepository resourceSummaryRepository;
+    private final ArticleRatingSummaryRepository articleSummaryRepository;
+    private final ResourceRatingRepository resourceRatingRepository;
+    private final ArticleRatingRepository articleRatingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public RatingSummaryServiceImpl(ResourceRatingSummaryRepository resourceSummaryRepository,
+                                    ArticleRatingSummaryRepository articleSummaryRepository,
+                                    ResourceRatingRepository resourceRatingRepository,
+                                    ArticleRatingRepository articleRatingRepository,
+                                    TransactionTemplate transactionTemplate) {
+        this.resourceSummaryRepository = resourceSummaryRepository;
+        this.articleSummaryRepository = articleSummaryRepository;
+        this.resourceRatingRepository = resourceRatingRepository;
+        this.articleRatingRepository = articleRatingRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public long rebuildResourceSummaries() {
+        return rebuildInChunks(resourceSummaryRepository.findMaxId(), (from, to) -> {
+            resourceSummaryRepository.deleteRange(from, to);
+            return resourceSummaryRepository.rebuildRange(from, to);
+        });
+    }
+
+    @Override
+    public long rebuildArticleSummaries() {
+        return rebuildInChunks(articleSummaryRepository.findMaxId(), (from, to) -> {
+            articleSummaryRepository.deleteRange(from, to);
+            return articleSummaryRepository.rebuildRange(from, to);
+        });
+    }
+
+    // Nightly repair, incremental updates keep the summaries right in between
+    @Scheduled(cron = "${library.rating-summary.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        long start = System.currentTimeMillis();
+        long resources = rebuildResourceSummaries();
+        long articles = rebuildArticleSummaries();
+        log.info("Rebuilt rating summaries for {} resources and {} articles in {} ms",
+                resources, articles, System.currentTimeMillis() - start);
+    }
+
+    // Runs rebuildRange over [0, maxId] in CHUNK_IDS wide ranges, one transaction each
+    private long rebuildInChunks(long maxId, LongBinaryOperator rebuildRange) {
+        long rows = 0;
+        for (long from = 0; from <= maxId; from += CHUNK_IDS) {
+            long chunkFrom = from;
+            Long written = transactionTemplate.execute(
+                    status -> rebuildRange.applyAsLong(chunkFrom, chunkFrom + CHUNK_IDS - 1));
+            rows += written == null ? 0 : written;
+        }
+        return rows;
+    }
+
+    // Summaries are new or were written before the star counters existed. Runs right after the
+    // rating compaction and before other startup listeners so they read complete summaries
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void rebuildIfIncomplete() {
+        if ((resourceSummaryRepository.count() == 0 && resourceRatingRepository.count() > 0)
+                || resourceSummaryRepository.countInconsistent() > 0) {
+            log.info("Rebuilt rating summaries for {} resources", rebuildResourceSummaries());
+        }
+        if ((articleSummaryRepository.count() == 0 && articleRatingRepository.count() > 0)
+                || articleSummaryRepository.countInconsistent() > 0) {
+            log.info("Rebuilt rating summaries for {} articles", rebuildArticleSummaries());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.recommend.ItemNeighbors;
+import com.alphacodes.librarymanagementsystem.recommend.ItemSimilarityBuilder;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRatingRepository;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRecommendationRepository;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
+import com.alphacodes.librarymanagementsystem.service.RecommendationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Item-item recommendations. A scheduled build mines ratings and open issues into a top-k
+// neighbor table, stores it in resource_recommendation and swaps it into memory; requests
+// only read the in-memory table and load the recommended resources in one query.
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private static final int CHUNK_SIZE = 1000;
+    // Weight of an open issue next to ratings of 1 to 5
+    private static final float ISSUE_WEIGHT = 3f;
+    private static final int NEIGHBOR_BYTES = Long.BYTES + Float.BYTES;
+
+    private static final String INSERT_SQL = "INSERT INTO resource_recommendation (resource_id, neighbors) VALUES (?, ?)";
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceRepository resourceRepository;
+    private final ResourceRatingRepository resourceRatingRepository;
+    private final ResourceRecommendationRepository recommendationRepository;
+    private final ItemSimilarityBuilder similarityBuilder;
+    private final int neighborsPerResource;
+
+    private volatile ItemNeighbors neighbors = ItemNeighbors.EMPTY;
+
+    public RecommendationServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     ResourceRepository resourceRepository,
+                                     ResourceRatingRepository resourceRatingRepository,
+                                     ResourceRecommendationRepository recommendationRepository,
+                                     @Value("${library.recommendations.neighbors:20}") int neighborsPerResource,
+                                     @Value("${library.recommendations.max-items-per-user:500}") int maxItemsPerUser,
+                                     @Value("${library.recommendations.shrinkage:10}") float shrinkage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceRepository = resourceRepository;
+        this.resourceRatingRepository = resourceRatingRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.neighborsPerResource = neighborsPerResource;
+        this.similarityBuilder = new ItemSimilarityBuilder(neighborsPerResource, maxItemsPerUser, shrinkage,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public List<ResourceDto> getRecommendations(Long resourceId, int limit) {
+        List<Long> ids = neighbors.neighbors(resourceId, Math.min(limit, neighborsPerResource));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ResourceDto> byId = resourceRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ResourceDto::getResourceId, Function.identity()));
+        List<ResourceDto> resources = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            // Resources deleted since the last build are skipped
+            ResourceDto resource = byId.get(id);
+            if (resource != null) {
+                resources.add(resource);
+            }
+        }
+        return resources;
+    }
+
+    @Override
+    @Scheduled(cron = "${library.recommendations.rebuild-cron:0 0 4 * * *}")
+    public synchronized int rebuildRecommendations() {
+        long start = System.currentTimeMillis();
+        ItemSimilarityBuilder.Interactions interactions = new ItemSimilarityBuilder.Interactions();
+        Map<String, Integer> users = new HashMap<>();
+
+        jdbcTemplate.query("SELECT member, book, rating FROM resource_rating", rs -> {
+            interactions.add(users.computeIfAbsent(rs.getString(1), id -> users.size()), rs.getLong(2), rs.getFloat(3));
+        });
+        jdbcTemplate.query("SELECT member, book FROM issue", rs -> {
+            interactions.add(users.computeIfAbsent(rs.getString(1), id -> users.size()), rs.getLong(2), ISSUE_WEIGHT);
+        });
+        long loaded = System.currentTimeMillis();
+
+        ItemNeighbors built = similarityBuilder.build(interactions);
+        long computed = System.currentTimeMillis();
+
+        save(built);
+        neighbors = built;
+        log.info("Built recommendations for {} resources from {} interactions of {} users: " +
+                        "load {} ms, similarity {} ms, save {} ms", built.size(), interactions.size(), users.size(),
+                loaded - start, computed - loaded, System.currentTimeMillis() - computed);
+        return built.size();
+    }
+
+    // Serve the stored table after a restart, building it the first time there is something to mine
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (recommendationRepository.count() == 0) {
+            if (resourceRatingRepository.count() > 0) {
+                rebuildRecommendations();
+            }
+            return;
+        }
+
+        ItemNeighbors.Builder builder = new ItemNeighbors.Builder();
+        long[] ids = new long[neighborsPerResource];
+        float[] scores = new float[neighborsPerResource];
+        jdbcTemplate.query("SELECT resource_id, neighbors FROM resource_recommendation ORDER BY resource_id", rs -> {
+            ByteBuffer buffer = ByteBuffer.wrap(rs.getBytes(2));
+            int count = Math.min(buffer.remaining() / NEIGHBOR_BYTES, neighborsPerResource);
+            for (int i = 0; i < count; i++) {
+                ids[i] = buffer.getLong();
+                scores[i] = buffer.getFloat();
+            }
+            builder.add(rs.getLong(1), ids, scores, count);
+        });
+        neighbors = builder.build();
+        log.info("Loaded recommendations for {} resources", neighbors.size());
+    }
+
+    // Replace the whole table in one transaction, readers use the in-memory copy meanwhile
+    private void save(ItemNeighbors built) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM resource_recommendation");
+            List<Object[]> batch = new ArrayList<>(CHUNK_SIZE);
+            for (int index = 0; index < built.size(); index++) {
+                ByteBuffer buffer = ByteBuffer.allocate(built.neighborCount(index) * NEIGHBOR_BYTES);
+                for (int rank = 0; rank < built.neighborCount(index); rank++) {
+                    buffer.putLong(built.neighborId(index, rank));
+                    buffer.putFloat(built.score(index, rank));
+                }
+                batch.add(new Object[]{built.itemId(index), buffer.array()});
+                if (batch.size() == CHUNK_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                    batch.clear();
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        });
+    }
+}
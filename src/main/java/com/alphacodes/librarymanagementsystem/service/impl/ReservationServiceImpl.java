@@ -2,14 +2,16 @@ package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.Model.Fine;
 import com.alphacodes.librarymanagementsystem.Model.Reservation;
-import com.alphacodes.librarymanagementsystem.Model.Resource;
 import com.alphacodes.librarymanagementsystem.Model.User;
+import com.alphacodes.librarymanagementsystem.cache.ResourceCache;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
 import com.alphacodes.librarymanagementsystem.repository.FineRepository;
 import com.alphacodes.librarymanagementsystem.repository.ReservationRepository;
 import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,9 @@ public class ReservationServiceImpl implements ReservationService {
     @Autowired
     private ResourceRepository resourceRepository;
 
+    @Autowired
+    private ResourceCache resourceCache;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -32,9 +37,12 @@ public class ReservationServiceImpl implements ReservationService {
     @Autowired
     private FineRepository fineRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public String reserveResource(Long resourceId, int userId) {
-        Optional<Resource> resourceOpt = resourceRepository.findById(resourceId);
+        boolean resourceExists = resourceCache.exists(resourceId);
         Optional<User> userOpt = userRepository.findById(userId);
 
         // Check the member need to pay fine or not
@@ -46,16 +54,16 @@ public class ReservationServiceImpl implements ReservationService {
             return "Please pay the fine first.";
         } else {
 
-            if (resourceOpt.isPresent() && userOpt.isPresent()) {
-                Resource resource = resourceOpt.get();
+            if (resourceExists && userOpt.isPresent()) {
                 User user = userOpt.get();
 
-                if (resource.getAvailability() > 0) {
-                    resource.setAvailability(resource.getAvailability() - 1);
-                    resourceRepository.save(resource);
+                // Check and decrease the availability count in one conditional update
+                if (resourceRepository.decrementAvailability(resourceId) == 1) {
+                    eventPublisher.publishEvent(new ResourceAvailabilityChangedEvent(
+                            resourceId, -1, ResourceAvailabilityChangedEvent.Cause.RESERVE));
 
                     Reservation reservation = new Reservation();
-                    reservation.setBook(resource);
+                    reservation.setBook(resourceRepository.getReferenceById(resourceId));
                     reservation.setMember(user);
                     reservation.setReservationTime(LocalDateTime.now());
                     reservation.setStatus("Active");
@@ -78,9 +86,10 @@ public class ReservationServiceImpl implements ReservationService {
         List<Reservation> expiredReservations = reservationRepository.findByReservationTimeBefore(expirationTime);
 
         for (Reservation reservation : expiredReservations) {
-            Resource resource = reservation.getBook();
-            resource.setAvailability(resource.getAvailability() + 1);
-            resourceRepository.save(resource);
+            Long resourceId = reservation.getBook().getResourceId();
+            resourceRepository.incrementAvailability(resourceId);
+            eventPublisher.publishEvent(new ResourceAvailabilityChangedEvent(
+                    resourceId, 1, ResourceAvailabilityChangedEvent.Cause.RESERVATION_EXPIRED));
 
             reservation.setStatus("Expired");
             reservationRepository.save(reservation);
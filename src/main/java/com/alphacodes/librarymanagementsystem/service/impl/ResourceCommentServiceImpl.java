@@ -1,12 +1,19 @@
 package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.DTO.CommentDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentPageDto;
+import com.alphacodes.librarymanagementsystem.DTO.CommentViewDto;
 import com.alphacodes.librarymanagementsystem.Model.ResourceComment;
+import com.alphacodes.librarymanagementsystem.cache.ResourceCache;
+import com.alphacodes.librarymanagementsystem.event.ResourceCommentedEvent;
 import com.alphacodes.librarymanagementsystem.repository.ResourceCommentRepository;
 import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.ResourceCommentService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,31 +21,39 @@ import java.util.stream.Collectors;
 @Service
 public class ResourceCommentServiceImpl implements ResourceCommentService{
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ResourceCommentRepository resourceCommentRepository;
     private final ResourceRepository resourceRepository;
+    private final ResourceCache resourceCache;
     private final UserRepository userRepository;
-    public ResourceCommentServiceImpl(ResourceCommentRepository resourceCommentRepository, ResourceRepository resourceRepository, UserRepository userRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+    public ResourceCommentServiceImpl(ResourceCommentRepository resourceCommentRepository, ResourceRepository resourceRepository,
+                                      ResourceCache resourceCache, UserRepository userRepository,
+                                      ApplicationEventPublisher eventPublisher) {
         this.resourceCommentRepository = resourceCommentRepository;
         this.resourceRepository = resourceRepository;
+        this.resourceCache = resourceCache;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public CommentDto addResourceComment(Long resourceId, CommentDto commentDto) {
         ResourceComment resourceComment1 = convertToResourceComment(commentDto);
-        resourceComment1.setBook(resourceRepository.findById(resourceId).orElseThrow(
-                () -> new RuntimeException("Resource not found with id " + resourceId)));
+        resourceComment1.setBook(resourceCache.getReference(resourceId));
 
 
         ResourceComment newResourceComment = resourceCommentRepository.save(resourceComment1);
+        changeCommentCount(resourceId, 1);
         return convertToCommentDto(newResourceComment);
     }
 
     @Override
     public List<CommentDto> getAllResourceComments(Long resourceId) {
-        List<ResourceComment> resourceComments = resourceCommentRepository.findByBook(resourceRepository.findById(resourceId).orElseThrow(
-                () -> new RuntimeException("Resource not found with id " + resourceId))
-        );
+        List<ResourceComment> resourceComments = resourceCommentRepository.findByBook(resourceCache.getReference(resourceId));
         return resourceComments.stream().map(this::convertToCommentDto).collect(Collectors.toList());
     }
 
@@ -50,13 +65,33 @@ public class ResourceCommentServiceImpl implements ResourceCommentService{
     }
 
     @Override
+    public CommentPageDto getResourceCommentPage(Long resourceId, Long afterId, int size) {
+        if (!resourceCache.exists(resourceId)) {
+            throw new RuntimeException("Resource not found with id " + resourceId);
+        }
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<CommentViewDto> comments = resourceCommentRepository.findPageAfter(
+                resourceId, afterId == null ? 0L : afterId, PageRequest.of(0, pageSize));
+        Long next = comments.size() < pageSize ? null : comments.get(comments.size() - 1).getCommentId();
+        return new CommentPageDto(comments, next);
+    }
+
+    @Override
+    @Transactional
     public String deleteResourceComment(Long resourceId, Long resourceCommentId) {
         ResourceComment resourceComment = resourceCommentRepository.findById(resourceCommentId).orElseThrow(
                 () -> new RuntimeException("Resource Comment not found with id " + resourceCommentId));
         resourceCommentRepository.delete(resourceComment);
+        changeCommentCount(resourceComment.getBook().getResourceId(), -1);
         return "Resource Comment deleted Successfully";
     }
 
+    // The cached resource is evicted once the count is committed
+    private void changeCommentCount(Long resourceId, int delta) {
+        resourceRepository.addCommentCount(resourceId, delta);
+        eventPublisher.publishEvent(new ResourceCommentedEvent(resourceId, delta));
+    }
+
     private ResourceComment convertToResourceComment(CommentDto commentDto){
         ResourceComment resourceComment = new ResourceComment();
         resourceComment.setMember(userRepository.findByUserID(commentDto.getUserID()).orElse(null));
@@ -0,0 +1,290 @@
+package com.alphacodes.librarymanagementsystem.service.impl;
+
+import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceImportReportDto;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
+import com.alphacodes.librarymanagementsystem.service.ResourceImportService;
+import com.alphacodes.librarymanagementsystem.service.ResourceService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams an upload row by row and writes it with batched JDBC inserts,
+// one transaction per chunk, so memory use does not depend on the file size.
+@Service
+public class ResourceImportServiceImpl implements ResourceImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO resource (title, author, availability, category) VALUES (?, ?, ?, ?)";
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceImportServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceRepository resourceRepository;
+    private final ResourceService resourceService;
+    private final ObjectMapper objectMapper;
+
+    public ResourceImportServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     ResourceRepository resourceRepository, ResourceService resourceService,
+                                     ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.resourceRepository = resourceRepository;
+        this.resourceService = resourceService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ResourceImportReportDto importCsv(InputStream inputStream) throws IOException {
+        Import anImport = new Import();
+        CsvReader reader = new CsvReader(
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+
+        List<String> header = reader.next();
+        if (header == null) {
+            return anImport.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("availability")) {
+            throw new IllegalArgumentException("CSV header must contain at least title and availability columns");
+        }
+
+        try {
+            List<String> values;
+            while ((values = reader.next()) != null) {
+                if (values.size() == 1 && values.get(0).isBlank()) {
+                    continue;
+                }
+                // Rows are numbered by the line they start on, a quoted field may span lines
+                anImport.accept(reader.recordLine,
+                        column(values, columns, "title"),
+                        column(values, columns, "author"),
+                        column(values, columns, "availability"),
+                        column(values, columns, "category"));
+            }
+        } catch (IOException | RuntimeException e) {
+            anImport.fail(e);
+        }
+        return anImport.finish();
+    }
+
+    @Override
+    public ResourceImportReportDto importJson(InputStream inputStream) throws IOException {
+        Import anImport = new Import();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON import must be an array of resources");
+            }
+            long row = 0;
+            try {
+                // Read one element at a time instead of the whole array. An element that is not an
+                // object or whose values do not bind is rejected on its own, the import goes on
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    row++;
+                    JsonNode element = objectMapper.readTree(parser);
+                    if (!element.isObject()) {
+                        anImport.reject(row, "not a JSON object");
+                        continue;
+                    }
+                    ResourceDto resourceDto;
+                    try {
+                        resourceDto = objectMapper.treeToValue(element, ResourceDto.class);
+                    } catch (JsonProcessingException | IllegalArgumentException e) {
+                        anImport.reject(row, "invalid value: " + (e instanceof JsonProcessingException processing
+                                ? processing.getOriginalMessage() : e.getMessage()));
+                        continue;
+                    }
+                    anImport.accept(row,
+                            resourceDto.getTitle(),
+                            resourceDto.getAuthor(),
+                            resourceDto.getAvailability() == null ? null : resourceDto.getAvailability().toString(),
+                            resourceDto.getCategory());
+                }
+            } catch (IOException | RuntimeException e) {
+                anImport.fail(e);
+            }
+        }
+        return anImport.finish();
+    }
+
+    // State of one running import: the pending chunk and the report
+    private class Import {
+        private final ResourceImportReportDto report = new ResourceImportReportDto();
+        private final List<Object[]> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final long startedAt = System.currentTimeMillis();
+        private final long lastIdBefore = resourceRepository.findMaxResourceId();
+
+        void accept(long row, String title, String author, String availability, String category) {
+            String error = validate(title, author, availability, category);
+            if (error != null) {
+                reject(row, error);
+                return;
+            }
+            chunk.add(new Object[]{title.trim(), trimToNull(author), Integer.parseInt(availability.trim()), trimToNull(category)});
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long row, String error) {
+            report.setRejected(report.getRejected() + 1);
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add("Row " + row + ": " + error);
+            }
+        }
+
+        ResourceImportReportDto finish() {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                fail(e);
+            } finally {
+                // Make the committed rows searchable, everything was inserted after lastIdBefore
+                resourceService.indexResourcesAfter(lastIdBefore);
+            }
+            report.setElapsedMillis(System.currentTimeMillis() - startedAt);
+            log.info("Resource import finished: {} imported, {} rejected in {} ms",
+                    report.getImported(), report.getRejected(), report.getElapsedMillis());
+            return report;
+        }
+
+        // Stop the import, chunks committed so far stay and the pending one is dropped
+        void fail(Exception e) {
+            log.error("Resource import failed after {} imported rows", report.getImported(), e);
+            report.setFailure("Import stopped after " + report.getImported() + " imported rows: " + e.getMessage());
+            chunk.clear();
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, chunk));
+            report.setImported(report.getImported() + chunk.size());
+            chunk.clear();
+            log.info("Resource import progress: {} imported, {} rejected", report.getImported(), report.getRejected());
+        }
+    }
+
+    private static String validate(String title, String author, String availability, String category) {
+        if (title == null || title.isBlank()) {
+            return "title is required";
+        }
+        if (title.trim().length() > MAX_TEXT_LENGTH
+                || (author != null && author.trim().length() > MAX_TEXT_LENGTH)
+                || (category != null && category.trim().length() > MAX_TEXT_LENGTH)) {
+            return "text longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (availability == null || availability.isBlank()) {
+            return "availability is required";
+        }
+        try {
+            if (Integer.parseInt(availability.trim()) < 0) {
+                return "availability must not be negative";
+            }
+        } catch (NumberFormatException e) {
+            return "availability is not a number: " + availability;
+        }
+        return null;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= values.size() ? null : values.get(index);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // RFC 4180 records: commas, double quoted fields with "" escapes, and line breaks inside quoted fields
+    private static final class CsvReader {
+        private final BufferedReader reader;
+        private long line;
+        // Line the last record started on
+        private long recordLine;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // Fields of the next record, null at the end of the input
+        List<String> next() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            recordLine = ++line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // The quoted field goes on past the line break
+                    text = reader.readLine();
+                    if (text == null) {
+                        throw new IllegalStateException(
+                                "Unterminated quoted field in the record starting on line " + recordLine);
+                    }
+                    line++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
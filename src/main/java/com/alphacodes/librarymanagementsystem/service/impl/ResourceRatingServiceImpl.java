@@ -1,36 +1,93 @@
 package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.DTO.RatingDto;
-import com.alphacodes.librarymanagementsystem.Model.ResourceRating;
+import com.alphacodes.librarymanagementsystem.DTO.RatingHistogramDto;
+import com.alphacodes.librarymanagementsystem.DTO.RatingSummaryDto;
+import com.alphacodes.librarymanagementsystem.Model.ResourceRatingSummary;
+import com.alphacodes.librarymanagementsystem.cache.ResourceCache;
+import com.alphacodes.librarymanagementsystem.event.ResourceRatedEvent;
+import com.alphacodes.librarymanagementsystem.repository.ResourceDailyActivityRepository;
 import com.alphacodes.librarymanagementsystem.repository.ResourceRatingRepository;
-import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
+import com.alphacodes.librarymanagementsystem.repository.ResourceRatingSummaryRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
 import com.alphacodes.librarymanagementsystem.service.ResourceRatingService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ResourceRatingServiceImpl implements ResourceRatingService {
 
     private final ResourceRatingRepository resourceRatingRepository;
-    private final ResourceRepository resourceRepository;
+    private final ResourceCache resourceCache;
     private final UserRepository userRepository;
+    private final ResourceRatingSummaryRepository summaryRepository;
+    private final ResourceDailyActivityRepository activityRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ResourceRatingServiceImpl(ResourceRatingRepository resourceRatingRepository, ResourceRepository resourceRepository, UserRepository userRepository) {
+    // Ids accepted by one batch lookup, keeps the IN lists bounded
+    private static final int MAX_BATCH_SIZE = 200;
+
+    public ResourceRatingServiceImpl(ResourceRatingRepository resourceRatingRepository, ResourceCache resourceCache,
+                                     UserRepository userRepository, ResourceRatingSummaryRepository summaryRepository,
+                                     ResourceDailyActivityRepository activityRepository,
+                                     ApplicationEventPublisher eventPublisher) {
         this.resourceRatingRepository = resourceRatingRepository;
-        this.resourceRepository = resourceRepository;
+        this.resourceCache = resourceCache;
         this.userRepository = userRepository;
+        this.summaryRepository = summaryRepository;
+        this.activityRepository = activityRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public RatingDto addResourceRating(Long resourceId, RatingDto ratingDto) {
-        ResourceRating resourceRating = convertToResourceRating(ratingDto);
-        resourceRating.setBook(resourceRepository.findById(resourceId).orElseThrow(
-            () -> new RuntimeException("Resource not found with id " + resourceId)));
+        if (!resourceCache.exists(resourceId)) {
+            throw new RuntimeException("Resource not found with id " + resourceId);
+        }
+        String userId = ratingDto.getUserID();
+        if (userId == null || !userRepository.existsByUserID(userId)) {
+            throw new RuntimeException("User not found with id " + userId);
+        }
 
-        ResourceRating newResourceRating = resourceRatingRepository.save(resourceRating);
-        return convertToRatingDto(newResourceRating);
+        // A member rating the book again replaces their rating, the summary moves by the difference.
+        // The summary row is locked first, so the previous rating is read only after any concurrent
+        // rating of this book has committed; two first ratings by the same member cannot both count
+        float rating = ratingDto.getRating();
+        LocalDate today = LocalDate.now();
+        summaryRepository.lockSummary(resourceId);
+        Float previousRating = resourceRatingRepository.findRatingForUpdate(userId, resourceId).orElse(null);
+        LocalDate previousRatingDay = null;
+        if (previousRating == null) {
+            resourceRatingRepository.upsertRating(userId, resourceId, rating, today);
+        } else {
+            previousRatingDay = resourceRatingRepository.findRatedOn(userId, resourceId).orElse(null);
+            resourceRatingRepository.updateRating(userId, resourceId, rating, today);
+        }
+
+        summaryRepository.addRating(resourceId, previousRating, rating);
+        // An edit moves the rating from the day it was given to today, so every day's activity
+        // stays an average of real ratings. Ratings from before days were recorded are only added
+        if (previousRatingDay != null) {
+            activityRepository.addActivity(resourceId, previousRatingDay, 0, -previousRating, -1);
+        }
+        activityRepository.addActivity(resourceId, today, 0, rating, 1);
+        eventPublisher.publishEvent(new ResourceRatedEvent(resourceId, rating, previousRating, previousRatingDay));
+
+        RatingDto saved = new RatingDto();
+        saved.setUserID(userId);
+        saved.setRating(rating);
+        return saved;
     }
 
     @Override
@@ -39,34 +96,72 @@ public class ResourceRatingServiceImpl implements ResourceRatingService {
     }
 
 
-    private float calculateResourceRating(Long resourceId) {
-        List<ResourceRating> ratings = resourceRatingRepository.findByBook(resourceRepository.findById(resourceId).orElseThrow(
-            () -> new RuntimeException("Resource not found with id " + resourceId)));
-
-        if (ratings.isEmpty()) {
-            throw new RuntimeException("No ratings found for resource with id " + resourceId);
+    @Override
+    public List<RatingSummaryDto> getResourceRatings(List<Long> resourceIds, String userId) {
+        Set<Long> ids = new LinkedHashSet<>(resourceIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("At most " + MAX_BATCH_SIZE + " resources can be looked up at once");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
         }
 
-        float sum = 0;
-        for (ResourceRating rating : ratings) {
-            sum += rating.getRating();
+        // One query for the summaries and one for the user's own ratings, whatever the number of ids
+        Map<Long, ResourceRatingSummary> summaries = new HashMap<>();
+        for (ResourceRatingSummary summary : summaryRepository.findAllById(ids)) {
+            summaries.put(summary.getResourceId(), summary);
+        }
+        Map<Long, Float> userRatings = new HashMap<>();
+        if (userId != null) {
+            for (Object[] row : resourceRatingRepository.findUserRatings(userId, ids)) {
+                userRatings.put((Long) row[0], (Float) row[1]);
+            }
         }
 
-        return sum / ratings.size();
+        List<RatingSummaryDto> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ResourceRatingSummary summary = summaries.get(id);
+            long count = summary == null ? 0 : summary.getRatingCount();
+            Float average = count == 0 ? null : (float) (summary.getRatingSum() / count);
+            result.add(new RatingSummaryDto(id, average, count, userRatings.get(id)));
+        }
+        return result;
     }
 
-    private ResourceRating convertToResourceRating(RatingDto ratingDto) {
-        ResourceRating resourceRating = new ResourceRating();
-        resourceRating.setMember(userRepository.findByUserID(ratingDto.getUserID()));
-        resourceRating.setRating(ratingDto.getRating());
-        return resourceRating;
+    // One primary key lookup on the summary row
+    @Override
+    public RatingHistogramDto getResourceRatingHistogram(Long resourceId) {
+        ResourceRatingSummary summary = summaryRepository.findById(resourceId).orElse(null);
+        if (summary == null) {
+            if (!resourceCache.exists(resourceId)) {
+                throw new RuntimeException("Resource not found with id " + resourceId);
+            }
+            summary = new ResourceRatingSummary();
+            summary.setResourceId(resourceId);
+        }
+
+        Map<Integer, Long> stars = new LinkedHashMap<>();
+        stars.put(1, summary.getStars1());
+        stars.put(2, summary.getStars2());
+        stars.put(3, summary.getStars3());
+        stars.put(4, summary.getStars4());
+        stars.put(5, summary.getStars5());
+        long count = summary.getRatingCount();
+        return new RatingHistogramDto(resourceId, count,
+                count == 0 ? null : (float) (summary.getRatingSum() / count), stars);
     }
 
-    private RatingDto convertToRatingDto(ResourceRating resourceRating) {
-        RatingDto ratingDto = new RatingDto();
-        ratingDto.setUserID(resourceRating.getMember().getUserID());
-        ratingDto.setRating(resourceRating.getRating());
-        return ratingDto;
+    private float calculateResourceRating(Long resourceId) {
+        ResourceRatingSummary summary = summaryRepository.findById(resourceId).orElse(null);
+
+        if (summary == null || summary.getRatingCount() == 0) {
+            if (!resourceCache.exists(resourceId)) {
+                throw new RuntimeException("Resource not found with id " + resourceId);
+            }
+            throw new RuntimeException("No ratings found for resource with id " + resourceId);
+        }
+
+        return (float) (summary.getRatingSum() / summary.getRatingCount());
     }
 
 }
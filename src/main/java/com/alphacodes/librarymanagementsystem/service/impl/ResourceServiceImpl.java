@@ -1,28 +1,65 @@
 package com.alphacodes.librarymanagementsystem.service.impl;
 
 import com.alphacodes.librarymanagementsystem.DTO.ResourceDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourceFacetsDto;
+import com.alphacodes.librarymanagementsystem.DTO.ResourcePageDto;
+import com.alphacodes.librarymanagementsystem.DTO.SuggestionDto;
 import com.alphacodes.librarymanagementsystem.Model.Resource;
+import com.alphacodes.librarymanagementsystem.cache.ResourceCache;
+import com.alphacodes.librarymanagementsystem.event.ResourceAvailabilityChangedEvent;
 import com.alphacodes.librarymanagementsystem.repository.ResourceRepository;
+import com.alphacodes.librarymanagementsystem.search.InvertedIndex;
+import com.alphacodes.librarymanagementsystem.search.ResourceFacetIndex;
+import com.alphacodes.librarymanagementsystem.search.SuggestionIndex;
 import com.alphacodes.librarymanagementsystem.service.ResourceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ResourceServiceImpl implements ResourceService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int SEARCH_LIMIT = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceServiceImpl.class);
+
     private final ResourceRepository resourceRepository;
 
-    public ResourceServiceImpl(ResourceRepository resourceRepository) {
+    // Full text index over title, author and category, kept in step with every write below
+    private final InvertedIndex searchIndex = new InvertedIndex();
+
+    private final ResourceFacetIndex facetIndex;
+    private final ResourceCache resourceCache;
+    private final SuggestionIndex suggestionIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ResourceServiceImpl(ResourceRepository resourceRepository, ResourceFacetIndex facetIndex,
+                               ResourceCache resourceCache, SuggestionIndex suggestionIndex,
+                               ApplicationEventPublisher eventPublisher) {
         this.resourceRepository = resourceRepository;
+        this.facetIndex = facetIndex;
+        this.resourceCache = resourceCache;
+        this.suggestionIndex = suggestionIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public ResourceDto addResource(ResourceDto resourceDto) {
         Resource resource = convertToResource(resourceDto);
         Resource newResource = resourceRepository.save(resource);
+        indexResource(newResource);
         return convertToResourceDto(newResource);
     }
 
@@ -32,11 +69,22 @@ public class ResourceServiceImpl implements ResourceService {
         return resources.stream().map(this::convertToResourceDto).collect(Collectors.toList());
     }
 
+    @Override
+    public ResourcePageDto getResourcePage(Long afterId, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        long cursor = afterId == null ? 0L : afterId;
+
+        List<ResourceDto> resources = resourceRepository.findPageAfter(cursor, PageRequest.of(0, pageSize));
+
+        // A short page means there is nothing left to read
+        Long next = resources.size() < pageSize ? null : resources.get(resources.size() - 1).getResourceId();
+        return new ResourcePageDto(resources, next);
+    }
+
     @Override
     public ResourceDto getResourceById(Long resourceId) {
-        Resource resource = resourceRepository.findById(resourceId).orElseThrow(
+        return resourceCache.get(resourceId).orElseThrow(
                 () -> new RuntimeException("Resource not found with id " + resourceId));
-        return convertToResourceDto(resource);
     }
 
     @Override
@@ -44,6 +92,10 @@ public class ResourceServiceImpl implements ResourceService {
         Resource resource = resourceRepository.findById(resourceId).orElseThrow(
                 () -> new RuntimeException("Resource not found with id " + resourceId));
         resourceRepository.delete(resource);
+        resourceCache.evict(resourceId);
+        searchIndex.remove(resourceId);
+        facetIndex.remove(resourceId);
+        suggestionIndex.remove(resourceId);
         return "Resource deleted Successfully";
     }
 
@@ -54,14 +106,99 @@ public class ResourceServiceImpl implements ResourceService {
         resource.setAuthor(resourceDto.getAuthor());
         resource.setCategory(resourceDto.getCategory());
         resource.setTitle(resourceDto.getTitle());
+        int previousAvailability = resource.getAvailability() == null ? 0 : resource.getAvailability();
         resource.setAvailability(resourceDto.getAvailability());
         Resource updatedResource = resourceRepository.save(resource);
+        resourceCache.evict(resourceId);
+        indexResource(updatedResource);
+
+        int availability = updatedResource.getAvailability() == null ? 0 : updatedResource.getAvailability();
+        if (availability != previousAvailability) {
+            eventPublisher.publishEvent(new ResourceAvailabilityChangedEvent(
+                    resourceId, availability - previousAvailability, ResourceAvailabilityChangedEvent.Cause.UPDATE));
+        }
         return convertToResourceDto(updatedResource);
     }
 
     public List<ResourceDto> searchResource(String keyword) {
-        List<Resource> resources = resourceRepository.findByTitle(keyword);
-        return resources.stream().map(this::convertToResourceDto).collect(Collectors.toList());
+        List<InvertedIndex.Hit> hits = searchIndex.search(keyword, SEARCH_LIMIT);
+        return loadInRankOrder(hits);
+    }
+
+    @Override
+    public List<ResourceDto> searchResource(String keyword, boolean fuzzy) {
+        if (!fuzzy) {
+            return searchResource(keyword);
+        }
+        List<InvertedIndex.Hit> hits = searchIndex.searchFuzzy(keyword, SEARCH_LIMIT, id -> true);
+        return loadInRankOrder(hits);
+    }
+
+    @Override
+    public ResourceFacetsDto getFacets(String keyword, String category, String author) {
+        if (keyword == null || keyword.isBlank()) {
+            return facetIndex.counts(category, author);
+        }
+        // Every match is counted, not only the best ranked ones
+        return facetIndex.counts(searchIndex.matchingIds(keyword), category, author);
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.min(limit, SuggestionIndex.TOP_K));
+    }
+
+    // Build the search, facet and suggestion indexes from a keyset scan of the catalog once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        long start = System.currentTimeMillis();
+        searchIndex.clear();
+        facetIndex.clear();
+        suggestionIndex.clear();
+        indexResourcesAfter(0L);
+        log.info("Indexed {} resources for search in {} ms", searchIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    // Index every resource with an id above afterId, used after rows were written outside this service
+    @Override
+    public void indexResourcesAfter(long afterId) {
+        long cursor = afterId;
+        List<ResourceDto> page;
+        do {
+            page = resourceRepository.findPageAfter(cursor, PageRequest.of(0, MAX_PAGE_SIZE));
+            for (ResourceDto resourceDto : page) {
+                searchIndex.put(resourceDto.getResourceId(),
+                        resourceDto.getTitle(), resourceDto.getAuthor(), resourceDto.getCategory());
+                facetIndex.put(resourceDto.getResourceId(),
+                        resourceDto.getCategory(), resourceDto.getAuthor(), resourceDto.getAvailability());
+                suggestionIndex.put(resourceDto.getResourceId(), resourceDto.getTitle(), resourceDto.getAuthor());
+            }
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getResourceId();
+            }
+        } while (page.size() == MAX_PAGE_SIZE);
+    }
+
+    private void indexResource(Resource resource) {
+        searchIndex.put(resource.getResourceId(), resource.getTitle(), resource.getAuthor(), resource.getCategory());
+        facetIndex.put(resource.getResourceId(), resource.getCategory(), resource.getAuthor(), resource.getAvailability());
+        suggestionIndex.put(resource.getResourceId(), resource.getTitle(), resource.getAuthor());
+    }
+
+    // Fetch the hits in one query and return them in the order the index ranked them
+    private List<ResourceDto> loadInRankOrder(List<InvertedIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ResourceDto> byId = resourceRepository
+                .findDtosByIdIn(hits.stream().map(InvertedIndex.Hit::id).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ResourceDto::getResourceId, Function.identity()));
+
+        return hits.stream()
+                .map(hit -> byId.get(hit.id()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     public List<ResourceDto> getResourcesByCategory(String category) {
@@ -82,10 +219,12 @@ public class ResourceServiceImpl implements ResourceService {
 
     private ResourceDto convertToResourceDto(Resource resource){
         ResourceDto resourceDto = new ResourceDto();
+        resourceDto.setResourceId(resource.getResourceId());
         resourceDto.setAuthor(resource.getAuthor());
         resourceDto.setCategory(resource.getCategory());
         resourceDto.setTitle(resource.getTitle());
         resourceDto.setAvailability(resource.getAvailability());
+        resourceDto.setCommentCount(resource.getCommentCount());
         return resourceDto;
     }
 
@@ -100,7 +239,6 @@ public class ResourceServiceImpl implements ResourceService {
 
     // Code for get resource count - aka avilability
     public Integer getAvailability(Long resourceId) {
-        Optional<Resource> resourceOpt = resourceRepository.findById(resourceId);
-        return resourceOpt.map(Resource::getAvailability).orElse(null);
+        return resourceCache.get(resourceId).map(ResourceDto::getAvailability).orElse(null);
     }
 }
@@ -9,15 +9,19 @@ import com.alphacodes.librarymanagementsystem.JwtAuthenticationConfig.JWTauthent
 import com.alphacodes.librarymanagementsystem.Model.Student;
 import com.alphacodes.librarymanagementsystem.Model.User;
 import com.alphacodes.librarymanagementsystem.OTPservice.OTPServiceImpl;
+import com.alphacodes.librarymanagementsystem.blob.BlobStore;
+import com.alphacodes.librarymanagementsystem.enums.ImageRendition;
 import com.alphacodes.librarymanagementsystem.enums.Role;
 import com.alphacodes.librarymanagementsystem.repository.StudentRepository;
 import com.alphacodes.librarymanagementsystem.repository.UserRepository;
+import com.alphacodes.librarymanagementsystem.service.ImageRenditionService;
 import com.alphacodes.librarymanagementsystem.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,13 +31,17 @@ public class UserServiceImpl implements UserService{
     private final StudentRepository studentRepository;
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
     private final JWTauthentication jwtA;
+    private final BlobStore blobStore;
+    private final ImageRenditionService imageRenditionService;
 
 
-    public UserServiceImpl(UserRepository userRepository ,StudentRepository studentRepository, BCryptPasswordEncoder bCryptPasswordEncoder, JWTauthentication jwtA) {
+    public UserServiceImpl(UserRepository userRepository ,StudentRepository studentRepository, BCryptPasswordEncoder bCryptPasswordEncoder, JWTauthentication jwtA, BlobStore blobStore, ImageRenditionService imageRenditionService) {
         this.userRepository = userRepository;
         this.studentRepository = studentRepository;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
         this.jwtA = jwtA;
+        this.blobStore = blobStore;
+        this.imageRenditionService = imageRenditionService;
     }
 
 
@@ -101,6 +109,39 @@ public class UserServiceImpl implements UserService{
         }
     }
 
+    @Override
+    public UserProfileDto updateProfileImage(String id, byte[] image) {
+        User user = userRepository.findByUserID(id);
+        if (user == null) {
+            return null;
+        }
+        user.setProfileImgRef(image == null ? null : blobStore.put(image));
+        // Drop the copy stored in the row before the blob store
+        user.setProfileImg(null);
+        userRepository.save(user);
+        imageRenditionService.generateRenditions(user.getProfileImgRef());
+        return mapToUserProfileDto(user);
+    }
+
+    @Override
+    public byte[] getProfileImage(String id) {
+        String ref = userRepository.findProfileImageRefByUserID(id);
+        if (ref != null) {
+            return blobStore.read(ref);
+        }
+        byte[] image = userRepository.findProfileImageByUserID(id);
+        if (image == null) {
+            throw new RuntimeException("Profile image not found for user with id " + id);
+        }
+        return image;
+    }
+
+    @Override
+    public Optional<Path> getProfileImageFile(String id, ImageRendition rendition) {
+        return Optional.ofNullable(userRepository.findProfileImageRefByUserID(id))
+                .flatMap(ref -> imageRenditionService.findRendition(ref, rendition));
+    }
+
     public User mapToUser(UserSaveRequest userSaveRequest) {
         User user = new User();
         user.setFirstName(userSaveRequest.getFirstName());
@@ -126,8 +167,12 @@ public class UserServiceImpl implements UserService{
         userProfileDto.setFirstName(user.getFirstName());
         userProfileDto.setLastName(user.getLastName());
         userProfileDto.setRole(user.getRole());
-        userProfileDto.setProfileImg(user.getProfileImg());
         userProfileDto.setUserID(user.getUserID());
+        if (user.getProfileImgRef() != null || user.getProfileImg() != null) {
+            String imageUrl = "/user/" + user.getUserID() + "/profileImage";
+            userProfileDto.setProfileImgUrl(imageUrl + "?size=" + ImageRendition.MEDIUM.variant());
+            userProfileDto.setThumbnailUrl(imageUrl + "?size=" + ImageRendition.THUMBNAIL.variant());
+        }
         return userProfileDto;
     }
 
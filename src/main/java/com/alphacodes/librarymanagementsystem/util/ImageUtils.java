@@ -1,65 +1,160 @@
 package com.alphacodes.librarymanagementsystem.util;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
+// Deflate for image payloads. JPEG, PNG, GIF and WebP are compressed already and deflate barely
+// shrinks them, so they pass through untouched; anything else is deflated once when it is written.
+// Deflater and Inflater hold native zlib memory, so a few instances are pooled and reset instead of
+// allocating a new one on every call.
 public class ImageUtils {
 
-    // Compress the image bytes before storing it in the database
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final BlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Inflater> INFLATERS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    // Compress the image bytes before storing it, already compressed formats are returned as they are
     public static byte[] compressBytes(byte[] data) {
-        if (data == null || data.length == 0) {
+        if (data == null || data.length == 0 || isCompressedImage(data)) {
             return data;
         }
 
-        Deflater deflater = new Deflater();
-        deflater.setLevel(Deflater.BEST_COMPRESSION);
-        deflater.setInput(data);
-        deflater.finish();
-
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length)) {
-            byte[] tmp = new byte[4 * 1024];
+        Deflater deflater = takeDeflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            // Deflated output is rarely larger than the input, grow in the odd case it is
+            byte[] out = new byte[data.length / 2 + 64];
+            int length = 0;
             while (!deflater.finished()) {
-                int count = deflater.deflate(tmp);
-                outputStream.write(tmp, 0, count);
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                length += deflater.deflate(out, length, out.length - length);
             }
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to close output stream", e);
+            return Arrays.copyOf(out, length);
+        } finally {
+            release(deflater);
         }
     }
 
-    // Decompress the image bytes before returning it to the angular application
+    // Decompress the image bytes before returning it to the angular application.
+    // Data that is not zlib, such as images stored as they are, is returned unchanged. The zlib
+    // header check passes for about one in 31 random byte pairs, so data that then fails to
+    // inflate is treated the same way
     public static byte[] decompressBytes(byte[] data) {
-        if (data == null || data.length == 0) {
+        if (data == null || data.length == 0 || !isZlib(data)) {
             return data;
         }
 
-        Inflater inflater = new Inflater();
-        inflater.setInput(data);
-
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length)) {
-            byte[] tmp = new byte[4 * 1024];
+        Inflater inflater = takeInflater();
+        try {
+            inflater.setInput(data);
+            byte[] out = new byte[Math.max(data.length * 2, BUFFER_SIZE)];
+            int length = 0;
             while (!inflater.finished()) {
-                try {
-                    int count = inflater.inflate(tmp);
-                    outputStream.write(tmp, 0, count);
-                } catch (DataFormatException e) {
-                    // Add detailed debug information
-                    System.err.println("DataFormatException: " + e.getMessage());
-                    System.err.println("Data length: " + data.length);
-                    for (int i = 0; i < data.length; i++) {
-                        System.err.print(data[i] + " ");
-                    }
-                    System.err.println();
-                    throw new RuntimeException("Data format exception during decompression", e);
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                int count = inflater.inflate(out, length, out.length - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return data;
                 }
+                length += count;
             }
-            return outputStream.toByteArray();
+            return Arrays.copyOf(out, length);
+        } catch (DataFormatException e) {
+            return data;
+        } finally {
+            release(inflater);
+        }
+    }
+
+    // JPEG, PNG, GIF and WebP by their magic numbers
+    public static boolean isCompressedImage(byte[] data) {
+        return contentType(data) != null;
+    }
+
+    // Media type of an image by its first bytes, null when it is not a known image format
+    public static String contentType(byte[] header) {
+        if (startsWith(header, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    // Media type of an image file, read from its first bytes
+    public static String contentType(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return contentType(in.readNBytes(12));
         } catch (IOException e) {
-            throw new RuntimeException("Failed to close output stream", e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Two byte zlib header: deflate method, and a check value making it a multiple of 31
+    private static boolean isZlib(byte[] data) {
+        if (data.length < 2) {
+            return false;
+        }
+        int cmf = data[0] & 0xFF;
+        int flg = data[1] & 0xFF;
+        return (cmf & 0x0F) == 8 && (cmf >> 4) <= 7 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... magic) {
+        if (data == null || data.length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((data[offset + i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Deflater takeDeflater() {
+        Deflater deflater = DEFLATERS.poll();
+        return deflater != null ? deflater : new Deflater(Deflater.BEST_COMPRESSION);
+    }
+
+    private static Inflater takeInflater() {
+        Inflater inflater = INFLATERS.poll();
+        return inflater != null ? inflater : new Inflater();
+    }
+
+    private static void release(Deflater deflater) {
+        deflater.reset();
+        if (!DEFLATERS.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static void release(Inflater inflater) {
+        inflater.reset();
+        if (!INFLATERS.offer(inflater)) {
+            inflater.end();
         }
     }
 }
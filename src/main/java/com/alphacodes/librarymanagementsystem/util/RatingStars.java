@@ -0,0 +1,21 @@
+package com.alphacodes.librarymanagementsystem.util;
+
+public class RatingStars {
+
+    // Star bucket of a rating, ratings are rounded half up and clamped to 1..5.
+    // Must agree with LEAST(5, GREATEST(1, FLOOR(rating + 0.5))) used by the summary rebuild queries
+    public static int star(double rating) {
+        return (int) Math.max(1, Math.min(5, Math.floor(rating + 0.5)));
+    }
+
+    // Change to the five star counters when a rating moves from previous to rating,
+    // previous is null for a new rating
+    public static long[] deltas(Float previous, float rating) {
+        long[] deltas = new long[5];
+        if (previous != null) {
+            deltas[star(previous) - 1]--;
+        }
+        deltas[star(rating) - 1]++;
+        return deltas;
+    }
+}
@@ -0,0 +1,122 @@
+package com.alphacodes.librarymanagementsystem.blob;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BlobTransferTests {
+
+	private static final byte[] DATA = new byte[1000];
+
+	static {
+		for (int i = 0; i < DATA.length; i++) {
+			DATA[i] = (byte) i;
+		}
+	}
+
+	private static MockHttpServletResponse serve(String... headers) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/article/1/image");
+		for (int i = 0; i < headers.length; i += 2) {
+			request.addHeader(headers[i], headers[i + 1]);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		BlobTransfer.serve(DATA, request, response);
+		return response;
+	}
+
+	private static String etag() throws Exception {
+		return serve().getHeader(HttpHeaders.ETAG);
+	}
+
+	private static void assertWhole(MockHttpServletResponse response) {
+		assertEquals(200, response.getStatus());
+		assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals(DATA.length, response.getContentLengthLong());
+		assertArrayEquals(DATA, response.getContentAsByteArray());
+	}
+
+	private static void assertPart(MockHttpServletResponse response, int first, int last) {
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes " + first + "-" + last + "/" + DATA.length, response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals(last - first + 1, response.getContentLengthLong());
+		assertArrayEquals(Arrays.copyOfRange(DATA, first, last + 1), response.getContentAsByteArray());
+	}
+
+	@Test
+	void withoutRangeTheWholeBlobIsSent() throws Exception {
+		assertWhole(serve());
+	}
+
+	@Test
+	void closedRangeIsSentAndClampedToTheLength() throws Exception {
+		assertPart(serve(HttpHeaders.RANGE, "bytes=10-19"), 10, 19);
+		assertPart(serve(HttpHeaders.RANGE, "bytes=995-5000"), 995, 999);
+	}
+
+	@Test
+	void suffixRangeSendsTheLastBytes() throws Exception {
+		assertPart(serve(HttpHeaders.RANGE, "bytes=-10"), 990, 999);
+		assertPart(serve(HttpHeaders.RANGE, "bytes=-5000"), 0, 999);
+	}
+
+	@Test
+	void openEndedRangeSendsTheRest() throws Exception {
+		assertPart(serve(HttpHeaders.RANGE, "bytes=990-"), 990, 999);
+	}
+
+	@Test
+	void rangePastTheEndIsUnsatisfiable() throws Exception {
+		for (String range : new String[]{"bytes=2000-", "bytes=1000-1010", "bytes=-0"}) {
+			MockHttpServletResponse response = serve(HttpHeaders.RANGE, range);
+			assertEquals(416, response.getStatus(), range);
+			assertEquals("bytes */" + DATA.length, response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+			assertEquals(0, response.getContentAsByteArray().length, range);
+		}
+	}
+
+	@Test
+	void multipleOrMalformedRangesAreIgnored() throws Exception {
+		assertWhole(serve(HttpHeaders.RANGE, "bytes=0-1,5-6"));
+		assertWhole(serve(HttpHeaders.RANGE, "bytes=20-10"));
+		assertWhole(serve(HttpHeaders.RANGE, "bytes=abc"));
+		assertWhole(serve(HttpHeaders.RANGE, "items=0-10"));
+	}
+
+	@Test
+	void ifRangeSendsThePartOnlyForTheCurrentEtag() throws Exception {
+		String etag = etag();
+		assertPart(serve(HttpHeaders.RANGE, "bytes=0-9", HttpHeaders.IF_RANGE, etag), 0, 9);
+		assertWhole(serve(HttpHeaders.RANGE, "bytes=0-9", HttpHeaders.IF_RANGE, "\"replaced\""));
+		// A date is never equal to the ETag, the whole blob is sent
+		assertWhole(serve(HttpHeaders.RANGE, "bytes=0-9", HttpHeaders.IF_RANGE, "Wed, 21 Oct 2015 07:28:00 GMT"));
+	}
+
+	@Test
+	void ifNoneMatchUsesTheWeakComparison() throws Exception {
+		String etag = etag();
+		for (String ifNoneMatch : new String[]{etag, "W/" + etag, "\"other\", " + etag, "*"}) {
+			MockHttpServletResponse response = serve(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+			assertEquals(304, response.getStatus(), ifNoneMatch);
+			assertEquals(0, response.getContentAsByteArray().length, ifNoneMatch);
+		}
+		assertWhole(serve(HttpHeaders.IF_NONE_MATCH, "\"other\""));
+	}
+
+	@Test
+	void headSendsTheHeadersOnly() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/article/1/image");
+		request.addHeader(HttpHeaders.RANGE, "bytes=-10");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		BlobTransfer.serve(DATA, request, response);
+		assertEquals(206, response.getStatus());
+		assertEquals(10, response.getContentLengthLong());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+}
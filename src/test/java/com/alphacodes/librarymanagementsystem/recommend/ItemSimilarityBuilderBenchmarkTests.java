@@ -0,0 +1,47 @@
+package com.alphacodes.librarymanagementsystem.recommend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Similarity table build time over synthetic ratings with skewed resource popularity.
+// Run with: mvn test -Dbenchmarks=true -Dtest=ItemSimilarityBuilderBenchmarkTests
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ItemSimilarityBuilderBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ItemSimilarityBuilderBenchmarkTests.class);
+
+	private static final int USERS = 100_000;
+	private static final int RESOURCES = 50_000;
+	private static final int RATINGS = Integer.getInteger("benchmarks.similarity-ratings", 1_000_000);
+	private static final int ROUNDS = 5;
+
+	@Test
+	void similarityBuildTime() {
+		Random random = new Random(42);
+		ItemSimilarityBuilder.Interactions interactions = new ItemSimilarityBuilder.Interactions();
+		for (int i = 0; i < RATINGS; i++) {
+			// Squaring a uniform value puts most ratings on the low, popular resource ids
+			double skew = random.nextDouble();
+			long resource = 1 + (long) (skew * skew * RESOURCES);
+			interactions.add(random.nextInt(USERS), resource, 1 + random.nextInt(5));
+		}
+
+		// Same settings as the recommendation service defaults
+		ItemSimilarityBuilder builder = new ItemSimilarityBuilder(20, 500, 10f,
+				Runtime.getRuntime().availableProcessors());
+		for (int round = 1; round <= ROUNDS; round++) {
+			long start = System.nanoTime();
+			ItemNeighbors neighbors = builder.build(interactions);
+			long millis = (System.nanoTime() - start) / 1_000_000;
+			log.info("Similarity build {} of {}: {} ratings, {} resources with neighbors, {} ms",
+					round, ROUNDS, RATINGS, neighbors.size(), millis);
+			assertTrue(neighbors.size() > 0);
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.alphacodes.librarymanagementsystem.repository;
+
+import com.alphacodes.librarymanagementsystem.Model.Resource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ResourceRepositoryConcurrencyTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ResourceRepositoryConcurrencyTests.class);
+
+	private static final int COPIES = 200;
+	// Twice the stock is asked for at every thread count, so the counter is always run down to 0
+	private static final int ATTEMPTS = COPIES * 2;
+	// Stock of the throughput run, large enough that every attempt issues a copy
+	private static final int BENCHMARK_COPIES = Integer.getInteger("benchmarks.checkout-copies", 20_000);
+
+	@Autowired
+	private ResourceRepository resourceRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<Long> createdIds = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		resourceRepository.deleteAllById(createdIds);
+		createdIds.clear();
+	}
+
+	@Test
+	void concurrentDecrementsNeverOverIssue() throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		// Same demand at growing thread counts, the result must not depend on the contention
+		for (int threads = 1; threads <= cores * 2; threads *= 2) {
+			Long resourceId = createResource(COPIES);
+
+			int issued = decrementConcurrently(resourceId, threads, ATTEMPTS);
+
+			assertEquals(COPIES, issued, threads + " threads");
+			assertEquals(0, resourceRepository.findById(resourceId).orElseThrow().getAvailability(), threads + " threads");
+			// An empty counter refuses further checkouts instead of going below 0
+			assertEquals(Integer.valueOf(0), transactionTemplate.execute(status -> resourceRepository.decrementAvailability(resourceId)));
+			assertEquals(0, resourceRepository.findById(resourceId).orElseThrow().getAvailability());
+		}
+	}
+
+	// Checkouts per second on one hot resource at growing thread counts.
+	// Run with: mvn test -Dbenchmarks=true -Dtest=ResourceRepositoryConcurrencyTests
+	@Test
+	@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+	void checkoutThroughput() throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		// Warm up the connection pool and the statement cache
+		decrementConcurrently(createResource(BENCHMARK_COPIES), cores, BENCHMARK_COPIES / 10);
+
+		for (int threads = 1; threads <= cores * 2; threads *= 2) {
+			Long resourceId = createResource(BENCHMARK_COPIES);
+
+			long start = System.nanoTime();
+			int issued = decrementConcurrently(resourceId, threads, BENCHMARK_COPIES);
+			long elapsedNanos = System.nanoTime() - start;
+
+			assertEquals(BENCHMARK_COPIES, issued, threads + " threads");
+			log.info("{} threads: {} checkouts in {} ms, {} checkouts/s", threads, issued,
+					TimeUnit.NANOSECONDS.toMillis(elapsedNanos), issued * 1_000_000_000L / elapsedNanos);
+		}
+	}
+
+	private int decrementConcurrently(Long resourceId, int threads, int totalAttempts) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch startSignal = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int attempts = totalAttempts / threads + (t < totalAttempts % threads ? 1 : 0);
+				results.add(executor.submit(() -> {
+					startSignal.await();
+					int issued = 0;
+					for (int i = 0; i < attempts; i++) {
+						Integer changed = transactionTemplate.execute(
+								status -> resourceRepository.decrementAvailability(resourceId));
+						// One row at most, a refused checkout changes none
+						assertTrue(changed != null && (changed == 0 || changed == 1));
+						issued += changed;
+					}
+					return issued;
+				}));
+			}
+			startSignal.countDown();
+
+			int total = 0;
+			for (Future<Integer> result : results) {
+				total += result.get();
+			}
+			return total;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Long createResource(int availability) {
+		Resource resource = new Resource();
+		resource.setTitle("Concurrency test copy");
+		resource.setAuthor("Test");
+		resource.setCategory("Test");
+		resource.setAvailability(availability);
+		Long id = resourceRepository.save(resource).getResourceId();
+		createdIds.add(id);
+		return id;
+	}
+}
@@ -0,0 +1,68 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FuzzyTermMatcherTests {
+
+	private static FuzzyTermMatcher matcher(String... terms) {
+		FuzzyTermMatcher matcher = new FuzzyTermMatcher();
+		for (String term : terms) {
+			matcher.add(term);
+		}
+		return matcher;
+	}
+
+	@Test
+	void transpositionAtStartMiddleAndEndIsOneEdit() {
+		FuzzyTermMatcher matcher = matcher("homer", "abcde", "tolkien", "the");
+		assertEquals(Map.of("homer", 1), matcher.similar("ohmer", 1));
+		assertEquals(Map.of("homer", 1), matcher.similar("hoemr", 1));
+		assertEquals(Map.of("homer", 1), matcher.similar("homre", 1));
+		assertEquals(Map.of("abcde", 1), matcher.similar("abdce", 1));
+		assertEquals(Map.of("tolkien", 1), matcher.similar("tolkein", 2));
+		assertEquals(Map.of("tolkien", 1), matcher.similar("otlkien", 2));
+		assertEquals(Map.of("the", 1), matcher.similar("hte", 1));
+	}
+
+	@Test
+	void substitutionInsertionAndDeletion() {
+		FuzzyTermMatcher matcher = matcher("homer", "tolkien");
+		assertEquals(Map.of("homer", 1), matcher.similar("hamer", 1));
+		assertEquals(Map.of("homer", 1), matcher.similar("jomer", 1));
+		assertEquals(Map.of("homer", 1), matcher.similar("homerr", 1));
+		assertEquals(Map.of("homer", 1), matcher.similar("homr", 1));
+		assertEquals(Map.of("homer", 1), matcher.similar("omer", 1));
+		assertEquals(Map.of("tolkien", 1), matcher.similar("tolkine", 2));
+		assertEquals(Map.of("tolkien", 2), matcher.similar("tlkienn", 2));
+	}
+
+	@Test
+	void termsFurtherAwayAndRemovedTermsDoNotMatch() {
+		FuzzyTermMatcher matcher = matcher("homer", "hammer");
+		assertEquals(Map.of("homer", 1), matcher.similar("homar", 1));
+		assertTrue(matcher.similar("hmoer", 0).isEmpty());
+		assertTrue(matcher.similar("xyzer", 1).isEmpty());
+
+		matcher.remove("homer");
+		assertTrue(matcher.similar("ohmer", 1).isEmpty());
+		assertEquals(Map.of("hammer", 1), matcher.similar("hamer", 1));
+	}
+
+	@Test
+	void searchFuzzyFindsTranspositions() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "The Odyssey", "Homer");
+		index.put(2, "Dune", "Frank Herbert");
+		for (String query : List.of("hoemr", "ohmer", "homre", "hmoer")) {
+			List<InvertedIndex.Hit> hits = index.searchFuzzy(query, 10, id -> true);
+			assertEquals(1, hits.size(), query);
+			assertEquals(1, hits.get(0).id(), query);
+		}
+	}
+}
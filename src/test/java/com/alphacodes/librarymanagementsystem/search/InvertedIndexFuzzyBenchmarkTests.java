@@ -0,0 +1,90 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Fuzzy search latency over synthetic titles, one query word with a typo per search.
+// Run with: mvn test -Dbenchmarks=true -Dtest=InvertedIndexFuzzyBenchmarkTests
+// -Dbenchmarks.fuzzy-sizes=10000,100000,1000000 picks the index sizes
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class InvertedIndexFuzzyBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(InvertedIndexFuzzyBenchmarkTests.class);
+
+	private static final String SIZES = System.getProperty("benchmarks.fuzzy-sizes", "10000,100000");
+	private static final int VOCABULARY = 20_000;
+	private static final int QUERIES = 2_000;
+	private static final String[] SYLLABLES = {"ka", "lo", "mi", "ter", "san", "ro", "vel", "din", "qu", "est", "ba", "nor"};
+
+	@Test
+	void fuzzySearchLatency() {
+		Random random = new Random(42);
+		String[] words = new String[VOCABULARY];
+		for (int i = 0; i < words.length; i++) {
+			StringBuilder word = new StringBuilder();
+			for (int s = 2 + random.nextInt(3); s > 0; s--) {
+				word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+			}
+			words[i] = word.toString();
+		}
+
+		for (int size : Arrays.stream(SIZES.split(",")).mapToInt(value -> Integer.parseInt(value.trim())).toArray()) {
+			InvertedIndex index = new InvertedIndex();
+			for (int id = 1; id <= size; id++) {
+				index.put(id, title(words, random), words[random.nextInt(words.length)], words[random.nextInt(words.length)]);
+			}
+
+			String[] queries = new String[QUERIES];
+			for (int i = 0; i < queries.length; i++) {
+				queries[i] = typo(words[random.nextInt(words.length)], random);
+			}
+			// Warm up on the same queries before timing them
+			for (String query : queries) {
+				index.searchFuzzy(query, 20, id -> true);
+			}
+
+			int found = 0;
+			long start = System.nanoTime();
+			for (String query : queries) {
+				if (!index.searchFuzzy(query, 20, id -> true).isEmpty()) {
+					found++;
+				}
+			}
+			long micros = (System.nanoTime() - start) / 1000 / queries.length;
+			log.info("Fuzzy search over {} resources: {} us per query, {} of {} queries found results",
+					size, micros, found, queries.length);
+			assertTrue(found > 0);
+		}
+	}
+
+	private static String title(String[] words, Random random) {
+		StringBuilder title = new StringBuilder();
+		for (int w = 2 + random.nextInt(4); w > 0; w--) {
+			title.append(words[random.nextInt(words.length)]).append(' ');
+		}
+		return title.toString();
+	}
+
+	// One substitution, deletion, insertion or transposition
+	private static String typo(String word, Random random) {
+		StringBuilder typo = new StringBuilder(word);
+		int at = random.nextInt(word.length() - 1);
+		switch (random.nextInt(4)) {
+			case 0 -> typo.setCharAt(at, (char) ('a' + random.nextInt(26)));
+			case 1 -> typo.deleteCharAt(at);
+			case 2 -> typo.insert(at, (char) ('a' + random.nextInt(26)));
+			default -> {
+				typo.setCharAt(at, word.charAt(at + 1));
+				typo.setCharAt(at + 1, word.charAt(at));
+			}
+		}
+		return typo.toString();
+	}
+}
@@ -0,0 +1,147 @@
+package com.alphacodes.librarymanagementsystem.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTests {
+
+	private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+		return hits.stream().map(InvertedIndex.Hit::id).toList();
+	}
+
+	private static long[] sorted(long[] ids) {
+		long[] copy = ids.clone();
+		Arrays.sort(copy);
+		return copy;
+	}
+
+	@Test
+	void higherTermFrequencyRanksFirst() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "dune planet house");
+		index.put(2, "dune dune planet");
+		index.put(3, "spice planet house");
+		assertEquals(List.of(2L, 1L), ids(index.search("dune", 10)));
+	}
+
+	@Test
+	void shorterDocumentRanksFirstAtTheSameFrequency() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "dune messiah children of dune", "frank herbert");
+		index.put(2, "dune", "herbert");
+		index.put(3, "foundation", "asimov");
+		assertEquals(List.of(2L, 1L), ids(index.search("herbert", 10)));
+	}
+
+	@Test
+	void rareTermsOutweighCommonOnes() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "the planet");
+		index.put(2, "the spice");
+		index.put(3, "the house");
+		index.put(4, "the worm");
+		List<InvertedIndex.Hit> hits = index.search("the spice", 10);
+		assertEquals(2L, hits.get(0).id());
+		assertEquals(4, hits.size());
+		assertTrue(hits.get(0).score() > hits.get(1).score());
+	}
+
+	@Test
+	void exactTermRanksAboveAPrefixMatch() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "rings of power");
+		index.put(2, "ring of fire");
+		assertEquals(List.of(2L, 1L), ids(index.search("ring", 10)));
+	}
+
+	@Test
+	void equalScoresRankTheLowerIdFirstAndTheLimitKeepsTheBest() {
+		InvertedIndex index = new InvertedIndex();
+		for (long id = 10; id >= 1; id--) {
+			index.put(id, "same title", "author " + id);
+		}
+		index.put(11, "same same same");
+		assertEquals(List.of(11L, 1L, 2L), ids(index.search("same", 3)));
+		assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.search("title", 4)));
+		assertEquals(List.of(2L, 4L), ids(index.search("title", 2, id -> id % 2 == 0)));
+	}
+
+	@Test
+	void removingADocumentKeepsTheOthersInTheSamePostingsSearchable() {
+		InvertedIndex index = new InvertedIndex();
+		String[] words = {"alpha", "bravo", "charlie", "delta", "echo"};
+		for (int i = 0; i < words.length; i++) {
+			index.put(i + 1, "common " + words[i]);
+		}
+
+		// First, middle and last slot of the shared "common" postings
+		index.remove(1);
+		index.remove(3);
+		index.remove(5);
+
+		assertEquals(2, index.size());
+		assertEquals(List.of(2L, 4L), ids(index.search("common", 10)));
+		assertEquals(List.of(2L), ids(index.search("bravo", 10)));
+		assertEquals(List.of(4L), ids(index.search("delta", 10)));
+		for (String removed : new String[]{"alpha", "charlie", "echo"}) {
+			assertTrue(index.search(removed, 10).isEmpty(), removed);
+			assertTrue(index.searchFuzzy(removed, 10, id -> true).isEmpty(), removed);
+		}
+		assertArrayEquals(new long[]{2, 4}, sorted(index.matchingIds("common")));
+
+		// The slots freed above are reused
+		index.put(6, "common foxtrot");
+		assertEquals(List.of(2L, 4L, 6L), ids(index.search("common", 10)));
+		index.remove(2);
+		assertEquals(List.of(4L, 6L), ids(index.search("common", 10)));
+		assertEquals(List.of(6L), ids(index.search("foxtrot", 10)));
+	}
+
+	@Test
+	void removingAnUnknownIdChangesNothing() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "dune");
+		index.remove(2);
+		assertEquals(1, index.size());
+		assertEquals(List.of(1L), ids(index.search("dune", 10)));
+	}
+
+	@Test
+	void puttingAnExistingIdReplacesItsTerms() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "old title", "someone");
+		index.put(2, "other title");
+		index.put(1, "new title", "someone");
+
+		assertEquals(2, index.size());
+		assertTrue(index.search("old", 10).isEmpty());
+		assertTrue(index.searchFuzzy("old", 10, id -> true).isEmpty());
+		assertEquals(List.of(1L), ids(index.search("new", 10)));
+		// Listed once, not once per put
+		assertEquals(2, index.search("title", 10).size());
+		assertArrayEquals(new long[]{1, 2}, sorted(index.matchingIds("title")));
+
+		// Nothing left to index removes the document
+		index.put(1, "", null);
+		assertEquals(1, index.size());
+		assertTrue(index.search("new", 10).isEmpty());
+		assertEquals(List.of(2L), ids(index.search("title", 10)));
+	}
+
+	@Test
+	void clearEmptiesTheIndex() {
+		InvertedIndex index = new InvertedIndex();
+		index.put(1, "dune");
+		index.put(2, "foundation");
+		index.clear();
+		assertEquals(0, index.size());
+		assertTrue(index.search("dune", 10).isEmpty());
+		assertEquals(0, index.matchingIds("dune").length);
+	}
+}
@@ -0,0 +1,125 @@
+package com.alphacodes.librarymanagementsystem.service;
+
+import com.alphacodes.librarymanagementsystem.Model.Article;
+import com.alphacodes.librarymanagementsystem.Model.User;
+import com.alphacodes.librarymanagementsystem.enums.Role;
+import com.alphacodes.librarymanagementsystem.repository.ArticleCommentRepository;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRatingRepository;
+import com.alphacodes.librarymanagementsystem.repository.ArticleRepository;
+import com.alphacodes.librarymanagementsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Deleting an article with many comments and ratings, the old row by row cascade against the set based delete.
+// Needs the database of application.properties, run with: mvn test -Dbenchmarks=true -Dtest=ArticleDeleteBenchmarkTests
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ArticleDeleteBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ArticleDeleteBenchmarkTests.class);
+
+	private static final int CHILDREN = Integer.getInteger("benchmarks.article-children", 10_000);
+
+	@Autowired
+	private ArticleService articleService;
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	@Autowired
+	private ArticleCommentRepository articleCommentRepository;
+
+	@Autowired
+	private ArticleRatingRepository articleRatingRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private String userId;
+
+	@BeforeEach
+	void createAuthor() {
+		userId = "bench-" + System.nanoTime();
+		User author = new User();
+		author.setUserID(userId);
+		author.setFirstName("Benchmark");
+		author.setRole(Role.MEMBER);
+		userRepository.save(author);
+	}
+
+	@AfterEach
+	void deleteAuthor() {
+		jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId);
+	}
+
+	@Test
+	void setBasedDeleteAgainstRowByRowDelete() {
+		int rowByRowId = createArticleWithChildren();
+		long start = System.nanoTime();
+		transactionTemplate.executeWithoutResult(status -> {
+			// What DeleteArticle did before: load every child and delete it on its own, then the article
+			Article article = articleRepository.findById(rowByRowId).orElseThrow();
+			articleCommentRepository.findByArticle(article).forEach(articleCommentRepository::delete);
+			articleRatingRepository.findByArticle(article).forEach(articleRatingRepository::delete);
+			articleRepository.deleteById(rowByRowId);
+		});
+		long rowByRowMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		int setBasedId = createArticleWithChildren();
+		start = System.nanoTime();
+		articleService.DeleteArticle(setBasedId, userId);
+		long setBasedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertFalse(articleRepository.existsById(rowByRowId));
+		assertFalse(articleRepository.existsById(setBasedId));
+		assertEquals(0, countChildren(setBasedId));
+		log.info("Deleting an article with {} comments and {} ratings: row by row {} ms, set based {} ms",
+				CHILDREN, CHILDREN, rowByRowMillis, setBasedMillis);
+	}
+
+	private int createArticleWithChildren() {
+		Article article = new Article();
+		article.setTitle("Delete benchmark");
+		article.setBody("Delete benchmark");
+		article.setAuthor(userRepository.findByUserID(userId));
+		int articleId = articleRepository.save(article).getArticleId();
+
+		List<Object[]> comments = new ArrayList<>(CHILDREN);
+		List<Object[]> ratings = new ArrayList<>(CHILDREN);
+		for (int i = 0; i < CHILDREN; i++) {
+			comments.add(new Object[]{articleId, userId, "Comment " + i});
+			ratings.add(new Object[]{articleId, userId, 1 + i % 5});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO article_comments (articles, member, comment) VALUES (?, ?, ?)", comments);
+		jdbcTemplate.batchUpdate("INSERT INTO article_rating (articles, member, rating) VALUES (?, ?, ?)", ratings);
+		assertEquals(2L * CHILDREN, countChildren(articleId));
+		return articleId;
+	}
+
+	private long countChildren(int articleId) {
+		Long comments = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article_comments WHERE articles = ?", Long.class, articleId);
+		Long ratings = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article_rating WHERE articles = ?", Long.class, articleId);
+		return comments + ratings;
+	}
+}
@@ -0,0 +1,69 @@
+package com.alphacodes.librarymanagementsystem.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Codec throughput and allocation per call on 200 KB payloads: a JPEG that passes through,
+// an uncompressed bitmap that is deflated, and inflating that bitmap again.
+// There is no JMH in this build, this is a warmed up timing loop on the test thread.
+// Run with: mvn test -Dbenchmarks=true -Dtest=ImageUtilsBenchmarkTests
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ImageUtilsBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(ImageUtilsBenchmarkTests.class);
+
+	private static final int PAYLOAD = 200_000;
+	private static final int ITERATIONS = Integer.getInteger("benchmarks.codec-iterations", 200);
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	@Test
+	void codecThroughput() {
+		Random random = new Random(1);
+		byte[] jpeg = new byte[PAYLOAD];
+		random.nextBytes(jpeg);
+		jpeg[0] = (byte) 0xFF;
+		jpeg[1] = (byte) 0xD8;
+		jpeg[2] = (byte) 0xFF;
+		byte[] bitmap = new byte[PAYLOAD];
+		for (int i = 0; i < bitmap.length; i++) {
+			bitmap[i] = (byte) ((i / 3) % 50 + random.nextInt(3));
+		}
+		bitmap[0] = 'B';
+		bitmap[1] = 'M';
+		byte[] deflated = ImageUtils.compressBytes(bitmap);
+
+		assertSame(jpeg, ImageUtils.compressBytes(jpeg));
+		assertArrayEquals(bitmap, ImageUtils.decompressBytes(deflated));
+
+		measure("compress JPEG", jpeg, ImageUtils::compressBytes, ITERATIONS);
+		measure("compress bitmap", bitmap, ImageUtils::compressBytes, ITERATIONS);
+		measure("decompress bitmap", deflated, ImageUtils::decompressBytes, ITERATIONS * 5);
+	}
+
+	private static void measure(String name, byte[] data, UnaryOperator<byte[]> codec, int iterations) {
+		long sink = 0;
+		for (int i = 0; i < iterations / 4; i++) {
+			sink += codec.apply(data).length;
+		}
+		long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			sink += codec.apply(data).length;
+		}
+		long nanos = System.nanoTime() - start;
+		long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+		log.info("{}: {} ops/s, {} KB allocated per op ({} bytes out)",
+				name, iterations * 1_000_000_000L / nanos, allocated / 1024 / iterations, sink);
+	}
+}